@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler once for each thread count from 1
+ * up to the number of available processors, doubling each time. Any
+ * arguments are passed on to JMH, for example a regex of the benchmarks to
+ * include.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+public final class BenchmarkRunner {
+    
+    private BenchmarkRunner() { }
+    
+    public static void main(String... args) throws CommandLineOptionException, RunnerException {
+        
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        int processors = Runtime.getRuntime().availableProcessors();
+        
+        for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+            
+            Options options = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            
+            new Runner(options).run();
+            
+            if (threads == processors) break;
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises.benchmarks;
+
+import me.sparky.promises.Promise;
+import me.sparky.promises.SettleablePromise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Promise#all}, {@link Promise#whenAll},
+ * {@link Promise#allSettled} and {@link Promise#any} over pending inputs that
+ * are resolved one after another, against {@link CompletableFuture#allOf}
+ * and {@link CompletableFuture#anyOf}. Each operation creates its inputs,
+ * combines them and then settles them.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class CombinatorBenchmark {
+    
+    @Param({"10", "1000", "100000", "1000000"})
+    public int inputs;
+    
+    @Benchmark
+    public Promise<?> all() {
+        
+        List<Promise<Integer>> promises = new ArrayList<>(inputs);
+        for (int i = 0; i < inputs; i++)
+            promises.add(new SettleablePromise<>());
+        
+        Promise<?> all = Promise.all(promises);
+        resolveAll(promises);
+        return all;
+        
+    }
+    
+    @Benchmark
+    public Promise<?> whenAll() {
+        
+        List<Promise<?>> promises = new ArrayList<>(inputs);
+        for (int i = 0; i < inputs; i++)
+            promises.add(new SettleablePromise<Integer>());
+        
+        Promise<?> whenAll = Promise.whenAll(promises);
+        resolveAll(promises);
+        return whenAll;
+        
+    }
+    
+    @Benchmark
+    public Promise<?> allSettled() {
+        
+        List<Promise<?>> promises = new ArrayList<>(inputs);
+        for (int i = 0; i < inputs; i++)
+            promises.add(new SettleablePromise<Integer>());
+        
+        Promise<?> allSettled = Promise.allSettled(promises);
+        resolveAll(promises);
+        return allSettled;
+        
+    }
+    
+    @Benchmark
+    public Promise<?> any() {
+        
+        List<Promise<Integer>> promises = new ArrayList<>(inputs);
+        for (int i = 0; i < inputs; i++)
+            promises.add(new SettleablePromise<>());
+        
+        Promise<?> any = Promise.any(promises);
+        resolveAll(promises);
+        return any;
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<?> completableFutureAllOf() {
+        
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[inputs];
+        for (int i = 0; i < inputs; i++)
+            futures[i] = new CompletableFuture<Integer>();
+        
+        CompletableFuture<?> allOf = CompletableFuture.allOf(futures);
+        completeAll(futures);
+        return allOf;
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<?> completableFutureAnyOf() {
+        
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[inputs];
+        for (int i = 0; i < inputs; i++)
+            futures[i] = new CompletableFuture<Integer>();
+        
+        CompletableFuture<?> anyOf = CompletableFuture.anyOf(futures);
+        completeAll(futures);
+        return anyOf;
+        
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void resolveAll(List<? extends Promise<?>> promises) {
+        
+        for (int i = 0; i < promises.size(); i++)
+            ((SettleablePromise<Integer>) promises.get(i)).resolve(i);
+        
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void completeAll(CompletableFuture<?>[] futures) {
+        
+        for (int i = 0; i < futures.length; i++)
+            ((CompletableFuture<Integer>) futures[i]).complete(i);
+        
+    }
+    
+}
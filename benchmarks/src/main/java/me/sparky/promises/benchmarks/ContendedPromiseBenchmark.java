@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.sparky.promises.benchmarks;
+
+import me.sparky.promises.Promise;
+import me.sparky.promises.SettleablePromise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures settling a {@link SettleablePromise} and subscribing to it when
+ * every thread works on the same promise, against the equivalent
+ * {@link CompletableFuture} operations. Unlike
+ * {@link SettleablePromiseBenchmark}, where each thread uses its own promises,
+ * the compare-and-set on the shared promise is contended once the runner uses
+ * more than one thread.
+ *
+ * A settled shared promise is replaced by a new pending one by the thread that
+ * settled it, and each thread settles the shared promise after
+ * {@link #PUSHES_PER_SETTLE} subscriptions so that its callback chain stays
+ * short.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContendedPromiseBenchmark {
+    
+    private static final Object VALUE = new Object();
+    private static final int PUSHES_PER_SETTLE = 64;
+    
+    private final AtomicReference<RacingPromise<Object>> sharedPromise =
+            new AtomicReference<>(new RacingPromise<>());
+    private final AtomicReference<CompletableFuture<Object>> sharedFuture =
+            new AtomicReference<>(new CompletableFuture<>());
+    
+    @Benchmark
+    public Promise<Object> settleShared() {
+        
+        RacingPromise<Object> promise = sharedPromise.get();
+        if (promise.trySettle(VALUE)) sharedPromise.compareAndSet(promise, new RacingPromise<>());
+        return promise;
+        
+    }
+    
+    @Benchmark
+    public Promise<Object> thenOnShared(Blackhole blackhole, Pushes pushes) {
+        
+        RacingPromise<Object> promise = sharedPromise.get();
+        promise.then(blackhole::consume);
+        
+        if (++pushes.count % PUSHES_PER_SETTLE == 0 && promise.trySettle(VALUE))
+            sharedPromise.compareAndSet(promise, new RacingPromise<>());
+        
+        return promise;
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<Object> completableFutureCompleteShared() {
+        
+        CompletableFuture<Object> future = sharedFuture.get();
+        if (future.complete(VALUE)) sharedFuture.compareAndSet(future, new CompletableFuture<>());
+        return future;
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<Void> completableFutureThenAcceptOnShared(Blackhole blackhole, Pushes pushes) {
+        
+        CompletableFuture<Object> future = sharedFuture.get();
+        CompletableFuture<Void> dependent = future.thenAccept(blackhole::consume);
+        
+        if (++pushes.count % PUSHES_PER_SETTLE == 0 && future.complete(VALUE))
+            sharedFuture.compareAndSet(future, new CompletableFuture<>());
+        
+        return dependent;
+        
+    }
+    
+    /**
+     * Counts the subscriptions made by one thread.
+     */
+    @State(Scope.Thread)
+    public static class Pushes {
+        
+        int count;
+        
+    }
+    
+    /**
+     * Exposes the settle operation that reports whether it won the race,
+     * which is only available to subclasses.
+     */
+    private static final class RacingPromise<T> extends SettleablePromise<T> {
+        
+        boolean trySettle(T result) { return tryResolve(result); }
+        
+    }
+    
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises.benchmarks;
+
+import me.sparky.promises.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the already-settled fast paths, {@link Promise#resolve} and
+ * {@link Promise#reject}, against {@link CompletableFuture#completedFuture}
+ * and {@link CompletableFuture#failedFuture}.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolvedPromiseBenchmark {
+    
+    private static final Exception REASON = new Exception("rejected", null, false, false) { };
+    
+    private int value;
+    
+    @Benchmark
+    public Promise<Void> resolveVoid() { return Promise.resolve(); }
+    
+    @Benchmark
+    public Promise<Integer> resolveThen(Blackhole blackhole) {
+        
+        return Promise.resolve(value++).then(blackhole::consume);
+        
+    }
+    
+    @Benchmark
+    public Promise<Integer> resolveThenRunnable(Blackhole blackhole) {
+        
+        return Promise.resolve(value++).then(() -> blackhole.consume(value));
+        
+    }
+    
+    @Benchmark
+    public Integer resolveTransform() {
+        
+        return Promise.resolve(value++).transform((value) -> value + 1).getNow(null);
+        
+    }
+    
+    @Benchmark
+    public Promise<Integer> rejectCatchException(Blackhole blackhole) {
+        
+        return Promise.<Integer>reject(REASON).catchException(blackhole::consume);
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<Void> completableFutureCompletedVoid() {
+        
+        return CompletableFuture.completedFuture(null);
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<Void> completableFutureCompletedThenAccept(Blackhole blackhole) {
+        
+        return CompletableFuture.completedFuture(value++).thenAccept(blackhole::consume);
+        
+    }
+    
+    @Benchmark
+    public Integer completableFutureCompletedThenApply() {
+        
+        return CompletableFuture.completedFuture(value++).thenApply((value) -> value + 1).getNow(null);
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<Integer> completableFutureFailedExceptionally(Blackhole blackhole) {
+        
+        return CompletableFuture.<Integer>failedFuture(REASON).exceptionally((reason) -> {
+            blackhole.consume(reason);
+            return null;
+        });
+        
+    }
+    
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises.benchmarks;
+
+import me.sparky.promises.Promise;
+import me.sparky.promises.SettleablePromise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of resolving a {@link SettleablePromise} and
+ * subscribing to it, against the equivalent {@link CompletableFuture}
+ * operations.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SettleablePromiseBenchmark {
+    
+    private static final Object VALUE = new Object();
+    
+    private SettleablePromise<Object> sharedResolved;
+    private CompletableFuture<Object> sharedCompleted;
+    
+    @Setup
+    public void setUp() {
+        
+        sharedResolved = new SettleablePromise<>();
+        sharedResolved.resolve(VALUE);
+        sharedCompleted = CompletableFuture.completedFuture(VALUE);
+        
+    }
+    
+    @Benchmark
+    public Promise<Object> resolve() {
+        
+        SettleablePromise<Object> promise = new SettleablePromise<>();
+        promise.resolve(VALUE);
+        return promise;
+        
+    }
+    
+    @Benchmark
+    public Promise<Object> resolveThen(Blackhole blackhole) {
+        
+        SettleablePromise<Object> promise = new SettleablePromise<>();
+        promise.then(blackhole::consume);
+        promise.resolve(VALUE);
+        return promise;
+        
+    }
+    
+    @Benchmark
+    public Promise<Object> resolveThenThreeCallbacks(Blackhole blackhole) {
+        
+        SettleablePromise<Object> promise = new SettleablePromise<>();
+        promise
+                .then(blackhole::consume)
+                .catchException(blackhole::consume)
+                .after(() -> blackhole.consume(VALUE));
+        promise.resolve(VALUE);
+        return promise;
+        
+    }
+    
+    @Benchmark
+    public Promise<Object> thenOnSharedResolved(Blackhole blackhole) {
+        
+        return sharedResolved.then(blackhole::consume);
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<Object> completableFutureComplete() {
+        
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        future.complete(VALUE);
+        return future;
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<Void> completableFutureCompleteThenAccept(Blackhole blackhole) {
+        
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Void> dependent = future.thenAccept(blackhole::consume);
+        future.complete(VALUE);
+        return dependent;
+        
+    }
+    
+    @Benchmark
+    public CompletableFuture<Void> completableFutureThenAcceptOnSharedCompleted(Blackhole blackhole) {
+        
+        return sharedCompleted.thenAccept(blackhole::consume);
+        
+    }
+    
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises.benchmarks;
+
+import me.sparky.promises.Promise;
+import me.sparky.promises.SettleablePromise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures building a chain of {@link Promise#transform} calls on a pending
+ * promise and then resolving it, against a chain of
+ * {@link CompletableFuture#thenApply} calls.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformChainBenchmark {
+    
+    private static final Function<Integer, Integer> INCREMENT = (value) -> value + 1;
+    
+    @Param({"1", "10", "100", "1000"})
+    public int depth;
+    
+    @Benchmark
+    public Integer transform() {
+        
+        SettleablePromise<Integer> head = new SettleablePromise<>();
+        
+        Promise<Integer> tail = head;
+        for (int i = 0; i < depth; i++)
+            tail = tail.transform(INCREMENT);
+        
+        head.resolve(0);
+        return tail.getNow(null);
+        
+    }
+    
+    @Benchmark
+    public Integer completableFutureThenApply() {
+        
+        CompletableFuture<Integer> head = new CompletableFuture<>();
+        
+        CompletableFuture<Integer> tail = head;
+        for (int i = 0; i < depth; i++)
+            tail = tail.thenApply(INCREMENT);
+        
+        head.complete(0);
+        return tail.getNow(null);
+        
+    }
+    
+}
@@ -16,7 +16,9 @@
 
 package me.sparky.promises;
 
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Provides implementation for a {@link Promise} which can be resolved.
@@ -37,46 +39,87 @@ public abstract class AbstractCompletablePromise<T> extends AbstractPromise<T> {
      */
     protected AbstractCompletablePromise() { }
     
+    /**
+     * Constructor for subclasses that take a runtime.
+     *
+     * @param runtime The runtime of the promise
+     */
+    AbstractCompletablePromise(@NotNull PromiseRuntime runtime) { super(runtime); }
+    
     /**
      * Resolves the promise with specified value. Assuming the state of the
      * promise is not pending all the {@link Promise#then} callbacks will.
+     * Resolving a cancelled promise is ignored.
      *
      * @param result The result of the promise
-     * @throws IllegalStateException if state is not {@link State#PENDING}
+     * @throws IllegalStateException if state is not {@link State#PENDING} or
+     * {@link State#CANCELLED}
      * @since 1.0
      */
     protected void resolve(T result) {
         
-        checkNotPending();
-        
-        this.result = result;
-        state = State.RESOLVED;
-        
-        for (Callback<? super T> callback : fulfilCallbacks)
-            runCallback(callback);
-        
-        either();
-        
-        fulfilCallbacks.clear();
+        if (!tryResolve(result) && getState() != State.CANCELLED)
+            throw new IllegalStateException("Promise has already been completed");
         
     }
     
     /**
-     * Rejects the promise with specified reason.
+     * Rejects the promise with specified reason. Rejecting a cancelled
+     * promise is ignored.
      *
      * @param reason The reason for the rejection
-     * @throws IllegalStateException if state is not {@link State#PENDING}
+     * @throws IllegalStateException if state is not {@link State#PENDING} or
+     * {@link State#CANCELLED}
      * @throws IllegalArgumentException if reason is null
      * @since 1.0
      */
     protected void reject(@NotNull Throwable reason) {
         
-        checkNotPending();
+        if (!tryReject(reason) && getState() != State.CANCELLED)
+            throw new IllegalStateException("Promise has already been completed");
         
-        // Check, then run no check rejection is used to not repeat code
-        state = State.REJECTED;
-        rejectNoCheck(reason);
-        fulfilCallbacks.clear();
+    }
+    
+    /**
+     * Runs {@link Promise#after(Runnable)} callbacks.
+     *
+     * @since 1.0
+     * @deprecated the callbacks are run when the promise is settled, so this
+     * does nothing
+     */
+    @ApiStatus.ScheduledForRemoval(inVersion = "1.6.0")
+    @Deprecated(since = "1.5", forRemoval = true)
+    protected void either() { }
+    
+    /**
+     * Rejects the promise without checking the current state.
+     *
+     * @param reason The reason for the rejection
+     * @throws IllegalArgumentException if reason is null
+     * @since 1.0
+     * @deprecated use {@link #tryReject(Throwable)}, which this delegates to
+     * and which is ignored if the promise has already been settled
+     */
+    @ApiStatus.ScheduledForRemoval(inVersion = "1.6.0")
+    @Deprecated(since = "1.5", forRemoval = true)
+    protected void rejectNoCheck(@NotNull Throwable reason) { tryReject(reason); }
+    
+    /**
+     * Helper function to check if state is pending, if not throw
+     * {@link IllegalStateException}.
+     *
+     * @throws IllegalStateException if state is not {@link State#PENDING}
+     * @since 1.0
+     * @deprecated racy since the promise may be settled by another thread
+     * right after the check, use {@link #tryResolve(Object)} and
+     * {@link #tryReject(Throwable)} instead
+     */
+    @ApiStatus.ScheduledForRemoval(inVersion = "1.6.0")
+    @Deprecated(since = "1.5", forRemoval = true)
+    protected void checkNotPending() {
+        
+        if (getState() != State.PENDING)
+            throw new IllegalStateException("Promise has already been completed");
         
     }
     
@@ -85,7 +128,8 @@ public abstract class AbstractCompletablePromise<T> extends AbstractPromise<T> {
      * {@link Promise#catchException(Callback)} is {@link PromiseRejectionException}.
      *
      * @param reason The reason for the rejection
-     * @throws IllegalStateException if state is not {@link State#PENDING}
+     * @throws IllegalStateException if state is not {@link State#PENDING} or
+     * {@link State#CANCELLED}
      * @throws IllegalArgumentException if reason is null
      * @since 1.0
      */
@@ -96,55 +140,75 @@ public abstract class AbstractCompletablePromise<T> extends AbstractPromise<T> {
     }
     
     /**
-     * Runs {@link Promise#after(Runnable)} callbacks.
+     * Resolves the promise with specified value if it is still pending. Unlike
+     * {@link #resolve(Object)} this is safe to call when other threads may be
+     * settling the promise at the same time.
      *
-     * @since 1.0
+     * @param result The result of the promise
+     * @return Whether the promise was resolved by this call
+     * @since 1.5
      */
-    protected void either() {
-        
-        for (Runnable runnable : anyCallbacks)
-            try {
-                runnable.run();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        
-    }
+    protected boolean tryResolve(T result) { return settle(result, null); }
     
     /**
-     * Rejects the promise without checking the current state. Or clearing the
-     * fulfil callbacks.
+     * Rejects the promise with specified reason if it is still pending.
+     * Unlike {@link #reject(Throwable)} this is safe to call when other
+     * threads may be settling the promise at the same time.
      *
      * @param reason The reason for the rejection
+     * @return Whether the promise was rejected by this call
      * @throws IllegalArgumentException if reason is null
-     * @since 1.0
+     * @since 1.5
      */
-    protected void rejectNoCheck(@NotNull Throwable reason) {
-        
-        this.reason = reason;
+    protected boolean tryReject(@NotNull Throwable reason) {
         
-        for (Callback<Throwable> callback : rejectCallbacks)
-            try {
-                callback.run(reason);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        if (reason == null) throw new IllegalArgumentException("reason must not be null");
         
-        either();
+        return settle(null, reason);
         
     }
     
     /**
-     * Helper function to check if state is pending, if so throw
-     * {@link IllegalStateException}.
+     * Settles this promise with the outcome of the specified promise once it
+     * is settled. Promises that are already settled are unwrapped directly and
+     * other promises from this library are followed with a single link in
+     * their callback chain.
      *
-     * @throws IllegalStateException if state is {@link State#PENDING}
-     * @since 1.0
+     * @param source The promise to follow
+     * @return The subscription to the followed promise, or null if it was
+     * already settled
      */
-    protected void checkNotPending() {
+    @Nullable
+    Subscription<?> settleWith(@NotNull Promise<? extends T> source) {
         
-        if (state != State.PENDING)
-            throw new IllegalStateException("Promise has already been completed");
+        if (source instanceof ResolvedPromise) tryResolve(source.getNow(null));
+        else if (source instanceof RejectedPromise) tryReject(((RejectedPromise<?>) source).reason());
+        else return follow(source);
+        
+        return null;
+        
+    }
+    
+    @NotNull
+    private <S extends T> Subscription<S> follow(@NotNull Promise<S> source) {
+        
+        Follower<S> follower = new Follower<>(this);
+        follower.subscribe(source);
+        return follower;
+        
+    }
+    
+    private static final class Follower<S> extends Subscription<S> {
+        
+        private final AbstractCompletablePromise<? super S> target;
+        
+        private Follower(@NotNull AbstractCompletablePromise<? super S> target) { this.target = target; }
+        
+        @Override
+        void onResolve(S result) { target.tryResolve(result); }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { target.tryReject(reason); }
         
     }
     
@@ -16,19 +16,31 @@
 
 package me.sparky.promises;
 
-import lombok.Getter;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
 
 /**
  * Provides basic implementation of {@link Promise} which most implementations
  * should extend.
  *
+ * The whole state of the promise is held in a single word. While the promise
+ * is pending the word holds a lock-free chain of the callbacks waiting for it,
+ * which is only allocated once something subscribes. Settling the promise
+ * swaps the chain for the outcome with a compare-and-set and runs the
+ * detached chain, so callbacks are never retained after settlement and
+ * registering a callback may race with settling the promise from any number
+ * of threads without locking.
+ *
  * @param <T> The type of the resolved value of the promise
  * @author Sparky
  * @since 1.0
@@ -36,59 +48,99 @@ import java.util.List;
  */
 public abstract class AbstractPromise<T> implements Promise<T> {
     
+    /**
+     * Stands in for a <code>null</code> result, since <code>null</code>
+     * means that the promise is pending.
+     */
+    private static final Object NIL = new Object();
+    
+    /**
+     * Returned by {@link #complete} when there were no callbacks to detach.
+     */
+    static final Completion<?> EMPTY = new AfterCompletion<>(() -> { });
+    
+    /**
+     * How many times a waiting thread spins before parking. Spinning only
+     * helps when another core can settle the promise in the meantime.
+     */
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 8 : 0;
+    
+    private static final VarHandle OUTCOME;
+    private static final VarHandle NEXT;
+    
+    static {
+        
+        try {
+            OUTCOME = MethodHandles.lookup().findVarHandle(AbstractPromise.class, "outcome", Object.class);
+            NEXT = MethodHandles.lookup().findVarHandle(Completion.class, "next", Completion.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    /**
+     * <code>null</code> or the head of the callback chain while pending,
+     * {@link #NIL} or the result once resolved and a {@link Rejection} once
+     * rejected.
+     */
+    @Nullable private volatile Object outcome;
+    
     /**
      * Current state of the promise, {@link State#PENDING} by default.
      *
      * @since 1.0
+     * @deprecated only mirrors the outcome once the promise has been settled,
+     * writing to it has no effect. Use {@link #getState()} instead.
      */
-    @Getter protected State state = State.PENDING;
+    @ApiStatus.ScheduledForRemoval(inVersion = "1.6.0")
+    @Deprecated(since = "1.5", forRemoval = true)
+    protected State state = State.PENDING;
     
     /**
      * The result of the promise, null of still pending or rejected.
      *
      * @since 1.0
+     * @deprecated only mirrors the outcome once the promise has been settled,
+     * writing to it has no effect and primitive promises leave it null. Use
+     * {@link #getNow(Object)} instead.
      */
+    @ApiStatus.ScheduledForRemoval(inVersion = "1.6.0")
+    @Deprecated(since = "1.5", forRemoval = true)
     @Nullable protected T result;
     
     /**
      * The rejection reason, null if resolved or pending.
      *
      * @since 1.0
+     * @deprecated only mirrors the outcome once the promise has been settled,
+     * writing to it has no effect. Use {@link #catchException(Callback)}
+     * instead.
      */
+    @ApiStatus.ScheduledForRemoval(inVersion = "1.6.0")
+    @Deprecated(since = "1.5", forRemoval = true)
     @Nullable protected Throwable reason;
     
     /**
-     * List of all fulfil callbacks.
-     *
-     * @since 1.0
-     */
-    @NotNull
-    protected List<@NotNull Callback<? super T>> fulfilCallbacks = new ArrayList<>(3);
-    
-    /**
-     *
-     * List of all rejection callbacks.
-     *
-     * @since 1.0
+     * The runtime that was current when the promise was created, whose
+     * exception handler and metrics hooks the promise uses wherever it is
+     * settled.
      */
-    @NotNull
-    protected List<@NotNull Callback<@NotNull Throwable>> rejectCallbacks = new ArrayList<>(3);
+    private final PromiseRuntime runtime;
     
     /**
-     * List of all any callbacks.
+     * Constructor for subclasses.
      *
      * @since 1.0
      */
-    @NotNull
-    protected List<@NotNull Runnable> anyCallbacks =
-            Collections.synchronizedList(new ArrayList<>(3));
+    protected AbstractPromise() { this(PromiseRuntime.current()); }
     
     /**
-     * Constructor for subclasses.
+     * Constructor for subclasses that take a runtime.
      *
-     * @since 1.0
+     * @param runtime The runtime of the promise
      */
-    protected AbstractPromise() { }
+    AbstractPromise(@NotNull PromiseRuntime runtime) { this.runtime = runtime; }
     
     /**
      * Adds additional logic to running a callback that is defined by subclass.
@@ -102,13 +154,26 @@ public abstract class AbstractPromise<T> implements Promise<T> {
     protected void runCallback(@NotNull Callback<? super T> fulfilCallback) {
         
         try {
-            fulfilCallback.run(result);
+            fulfilCallback.run(result());
         } catch (Exception e) {
-            e.printStackTrace();
+            handleException(e);
         }
         
     }
     
+    @Override
+    @NotNull
+    public State getState() {
+        
+        Object state = this.outcome;
+        
+        if (isPending(state)) return State.PENDING;
+        if (state instanceof Rejection)
+            return ((Rejection) state).reason instanceof CancellationException ? State.CANCELLED : State.REJECTED;
+        return State.RESOLVED;
+        
+    }
+    
     @Override
     @NotNull
     public Promise<T> then(@NotNull Callback<? super T> fulfil,
@@ -124,8 +189,8 @@ public abstract class AbstractPromise<T> implements Promise<T> {
     @Contract("_ -> this")
     public Promise<T> then(@NotNull Callback<? super T> fulfil) {
         
-        if (state == State.RESOLVED) runCallback(fulfil);
-        else fulfilCallbacks.add(fulfil);
+        if ((!isPending(outcome) || !push(new FulfilCompletion<>(fulfil))) && getState() == State.RESOLVED)
+            runCallback(fulfil);
         
         return this;
         
@@ -136,7 +201,10 @@ public abstract class AbstractPromise<T> implements Promise<T> {
     @Contract("_ -> this")
     public Promise<T> then(@NotNull Runnable fulfil) {
         
-        return then(new RunnableCallback<>(fulfil));
+        if ((!isPending(outcome) || !push(new RunnableCompletion<>(fulfil))) && getState() == State.RESOLVED)
+            runRunnable(fulfil);
+        
+        return this;
         
     }
     
@@ -145,7 +213,8 @@ public abstract class AbstractPromise<T> implements Promise<T> {
     @Contract("_, _ -> this")
     public Promise<T> then(@NotNull Runnable fulfil, @NotNull Callback<@NotNull Throwable> reject) {
         
-        return then(new RunnableCallback<>(fulfil), reject);
+        return then(fulfil)
+                .catchException(reject);
         
     }
     
@@ -153,20 +222,11 @@ public abstract class AbstractPromise<T> implements Promise<T> {
     @NotNull
     @Contract("_ -> this")
     public Promise<T> catchException(@NotNull Callback<@NotNull Throwable> reject) {
-    
-        if (state == State.REJECTED) {
-            
-            if (reason == null)
-                throw new AssertionError("Reason must not be null when state is REJECTED");
-            
-            try {
-                reject.run(reason);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-            
+        
+        if (!isPending(outcome) || !push(new RejectCompletion<>(reject))) {
+            Throwable reason = reason();
+            if (reason != null) runRejectCallback(reject, reason);
         }
-        rejectCallbacks.add(reject);
         
         return this;
         
@@ -177,18 +237,572 @@ public abstract class AbstractPromise<T> implements Promise<T> {
     @Contract("_ -> this")
     public Promise<T> after(@NotNull Runnable runnable) {
         
-        if (state != State.PENDING) runnable.run();
-        else anyCallbacks.add(runnable);
+        if (!isPending(outcome) || !push(new AfterCompletion<>(runnable))) runnable.run();
         
         return this;
         
     }
     
+    /**
+     * Transforms the result straight away if the promise is already settled,
+     * returning a resolved or rejected promise rather than a
+     * {@link TransformPromise}.
+     *
+     * @since 1.5
+     */
+    @Override
+    @NotNull
+    public <R> Promise<R> transform(@NotNull Function<T, R> transform) {
+        
+        Object state = this.outcome;
+        
+        if (isPending(state)) return new TransformPromise<>(this, transform);
+        if (state instanceof Rejection) return new RejectedPromise<>(((Rejection) state).reason);
+        return ResolvedPromise.transform(transform, result());
+        
+    }
+    
+    /**
+     * Applies the function straight away if the promise is already settled,
+     * returning the promise it returns rather than a {@link FlatMapPromise}.
+     *
+     * @since 1.5
+     */
+    @Override
+    @NotNull
+    public <R> Promise<R> flatMap(@NotNull Function<T, Promise<R>> flatMap) {
+        
+        Object state = this.outcome;
+        
+        if (isPending(state)) return new FlatMapPromise<>(this, flatMap);
+        if (state instanceof Rejection) return new RejectedPromise<>(((Rejection) state).reason);
+        return ResolvedPromise.flatMap(flatMap, result());
+        
+    }
+    
+    @Override
+    public boolean cancel() { return cancelled(complete(null, new CancellationException("Promise was cancelled"))); }
+    
     @Override
-    public void await() {
+    public void await() { waitFor(false, 0L); }
+    
+    @Override
+    public boolean await(@NotNull Duration timeout) {
+        
+        long nanos;
+        try {
+            nanos = timeout.toNanos();
+        } catch (ArithmeticException e) {
+            nanos = Long.MAX_VALUE;
+        }
+        
+        return waitFor(true, nanos);
+        
+    }
+    
+    @Override
+    public T join() {
+        
+        waitFor(false, 0L);
+        return getNow(null);
+        
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getNow(T valueIfPending) {
+        
+        Object state = this.outcome;
+        
+        if (isPending(state)) return valueIfPending;
+        if (state instanceof Rejection)
+            throw new PromiseRejectionException(((Rejection) state).reason);
+        return state == NIL ? null : (T) state;
+        
+    }
+    
+    @Override
+    @NotNull
+    public CompletableFuture<T> toCompletableFuture() {
+        
+        Object state = this.outcome;
+        
+        if (state instanceof Rejection) return CompletableFuture.failedFuture(((Rejection) state).reason);
+        if (!isPending(state)) return CompletableFuture.completedFuture(result());
+        
+        FutureCompletion<T> completion = new FutureCompletion<>();
+        if (!push(completion)) completion.run(this);
+        
+        return completion.future;
+        
+    }
+    
+    /**
+     * Called once when the promise is cancelled, before the callbacks that
+     * were waiting for it are run. Subclasses cancel the work that would have
+     * settled the promise and the promises they depend on.
+     *
+     * @since 1.5
+     */
+    protected void onCancel() { }
+    
+    /**
+     * Cancels the promise if it is pending and nothing is subscribed to it,
+     * which is atomic with respect to subscribing.
+     *
+     * @return Whether the promise was cancelled by this call
+     */
+    @SuppressWarnings("unchecked")
+    boolean cancelIfUnobserved() {
+        
+        Rejection cancellation = new Rejection(new CancellationException("Promise was cancelled"));
+        if (!OUTCOME.compareAndSet(this, null, cancellation)) return false;
+        
+        mirror(null, cancellation.reason);
+        return cancelled((Completion<T>) EMPTY);
+        
+    }
+    
+    /**
+     * Settles the promise with the specified outcome and runs the callbacks
+     * that were waiting for it in the order they were added. Only the first
+     * call for a promise succeeds.
+     *
+     * If the promise is settled by a callback of another promise, its
+     * callbacks are deferred until the outer callbacks have run, so that a
+     * long chain of dependent promises completes without growing the stack.
+     *
+     * @param result The result, ignored if reason is not null
+     * @param reason The reason for the rejection, or null to resolve
+     * @return Whether the promise was settled by this call
+     */
+    boolean settle(@Nullable T result, @Nullable Throwable reason) {
+        
+        Completion<T> completions = complete(result, reason);
+        
+        if (completions == null) return false;
+        if (completions != EMPTY) Trampoline.run(this, completions);
+        
+        return true;
+        
+    }
+    
+    /**
+     * Settles the promise with the specified outcome without running the
+     * callbacks that were waiting for it. The caller is responsible for
+     * running them.
+     *
+     * @param result The result, ignored if reason is not null
+     * @param reason The reason for the rejection, or null to resolve
+     * @return The detached callback chain in the order it was added,
+     * {@link #EMPTY} if there were no callbacks or null if the promise had
+     * already been settled
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    Completion<T> complete(@Nullable T result, @Nullable Throwable reason) {
+        
+        Object settled;
+        if (reason != null) settled = new Rejection(reason);
+        else if (result == null) settled = NIL;
+        else settled = result;
+        
+        Object state;
+        do {
+            state = this.outcome;
+            if (!isPending(state)) return null;
+        } while (!OUTCOME.compareAndSet(this, state, settled));
+        
+        mirror(result, reason);
+        
+        if (state == null) return (Completion<T>) EMPTY;
+        
+        // Reverse the chain so that callbacks run in the order they were added
+        Completion<T> completion = (Completion<T>) state;
+        Completion<T> reversed = null;
+        while (completion != null) {
+            Completion<T> next = completion.next;
+            NEXT.setRelease(completion, reversed);
+            reversed = completion;
+            completion = next;
+        }
+        
+        return reversed;
+        
+    }
+    
+    /**
+     * Copies the outcome of the promise into the deprecated state fields once
+     * it has been settled, before any callback runs.
+     *
+     * @param result The result, ignored if reason is not null
+     * @param reason The reason for the rejection, or null if resolved
+     */
+    private void mirror(@Nullable T result, @Nullable Throwable reason) {
+        
+        if (reason == null) {
+            this.result = result;
+            state = State.RESOLVED;
+        } else {
+            this.reason = reason;
+            state = reason instanceof CancellationException ? State.CANCELLED : State.REJECTED;
+        }
+        
+    }
+    
+    /**
+     * Gets the runtime of the promise.
+     *
+     * @return The runtime that was current when the promise was created, or
+     * the runtime it was created with
+     */
+    @NotNull
+    PromiseRuntime runtime() { return runtime; }
+    
+    /**
+     * Passes an exception thrown by a callback of this promise to the
+     * exception handler of its runtime.
+     *
+     * @param exception The exception
+     */
+    void handleException(@NotNull Throwable exception) { runtime.exceptionHandler().accept(exception); }
+    
+    /**
+     * Runs a detached callback chain. An exception thrown by one completion is
+     * passed to the exception handler and does not stop the rest of the chain
+     * from running, so that waiting threads are always woken up.
+     *
+     * @param completions The first completion of the chain
+     */
+    void runCompletions(@NotNull Completion<T> completions) {
         
-        while (state == State.PENDING)
+        for (Completion<T> completion = completions; completion != null; completion = completion.next) {
+            try {
+                completion.run(this);
+            } catch (Exception e) {
+                handleException(e);
+            }
+        }
+        
+    }
+    
+    /**
+     * Gets the result of the promise, null if pending, rejected or resolved
+     * with null.
+     *
+     * @return The result
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    T result() {
+        
+        Object state = this.outcome;
+        return isPending(state) || state == NIL || state instanceof Rejection ? null : (T) state;
+        
+    }
+    
+    /**
+     * Gets the reason for the rejection, null if pending or resolved.
+     *
+     * @return The reason
+     */
+    @Nullable
+    Throwable reason() {
+        
+        Object state = this.outcome;
+        return state instanceof Rejection ? ((Rejection) state).reason : null;
+        
+    }
+    
+    /**
+     * Adds a completion to the callback chain.
+     *
+     * @param completion The completion to add
+     * @return Whether it was added, false if the promise has been settled
+     */
+    @SuppressWarnings("unchecked")
+    boolean push(@NotNull Completion<T> completion) {
+        
+        Object state;
+        do {
+            state = this.outcome;
+            if (!isPending(state)) return false;
+            completion.next = (Completion<T>) state;
+        } while (!OUTCOME.compareAndSet(this, state, completion));
+        
+        return true;
+        
+    }
+    
+    /**
+     * Propagates the cancellation of the promise and runs its detached
+     * callback chain.
+     *
+     * @param completions The detached callback chain, or null if the promise
+     *                    had already been settled
+     * @return Whether the promise was cancelled
+     */
+    private boolean cancelled(@Nullable Completion<T> completions) {
+        
+        if (completions == null) return false;
+        
+        try {
+            onCancel();
+        } catch (Exception e) {
+            handleException(e);
+        }
+        
+        try {
+            runtime.metrics().onCancel();
+        } catch (Exception e) {
+            handleException(e);
+        }
+        
+        if (completions != EMPTY) Trampoline.run(this, completions);
+        
+        return true;
+        
+    }
+    
+    /**
+     * Unlinks the disposed completions from the callback chain, so that they
+     * and whatever they reference can be garbage collected while the promise
+     * is still pending. Completions that are disposed concurrently may be
+     * missed, but are harmless since disposed completions do nothing when run.
+     */
+    @SuppressWarnings("unchecked")
+    void unlinkDisposed() {
+        
+        Object state = this.outcome;
+        
+        while (state instanceof Completion && ((Completion<T>) state).isDisposed()) {
+            Completion<T> head = (Completion<T>) state;
+            state = OUTCOME.compareAndSet(this, head, head.next) ? head.next : this.outcome;
+        }
+        
+        if (!(state instanceof Completion)) return;
+        
+        // The chain is reversed in place once the promise is settled, which
+        // makes these compare-and-sets fail
+        Completion<T> completion = (Completion<T>) state;
+        Completion<T> next;
+        while ((next = completion.next) != null && isPending(this.outcome)) {
+            if (!next.isDisposed()) completion = next;
+            else NEXT.compareAndSet(completion, next, next.next);
+        }
+        
+    }
+    
+    /**
+     * Runs the callback chains queued on the current thread, spins for a short
+     * while, then parks the current thread until the promise is settled. Interrupts do not stop the wait, but are preserved. A waiter
+     * that gives up is unlinked from the callback chain, so that repeated
+     * timed waits on a long pending promise do not grow it.
+     *
+     * @param timed Whether to give up after nanos
+     * @param nanos The maximum time to wait if timed
+     * @return Whether the promise was settled
+     */
+    private boolean waitFor(boolean timed, long nanos) {
+        
+        // A callback chain on this thread may settle the promise, it must not
+        // stay queued behind the callback that waits
+        if (isPending(outcome)) Trampoline.runQueued();
+        
+        for (int spins = SPINS; spins > 0; spins--) {
+            if (!isPending(outcome)) return true;
             Thread.onSpinWait();
+        }
+        
+        if (!isPending(outcome)) return true;
+        if (timed && nanos <= 0L) return false;
+        
+        Waiter<T> waiter = new Waiter<>(Thread.currentThread());
+        if (!push(waiter)) return true;
+        
+        long deadline = timed ? System.nanoTime() + nanos : 0L;
+        boolean interrupted = false;
+        
+        try {
+            while (isPending(outcome)) {
+                
+                if (timed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L) return false;
+                    LockSupport.parkNanos(this, remaining);
+                } else {
+                    LockSupport.park(this);
+                }
+                
+                if (Thread.interrupted()) interrupted = true;
+                
+            }
+            return true;
+        } finally {
+            if (isPending(outcome)) {
+                waiter.disposed = true;
+                unlinkDisposed();
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        
+    }
+    
+    private static boolean isPending(@Nullable Object state) {
+        
+        return state == null || state instanceof Completion;
+        
+    }
+    
+    private void runRunnable(@NotNull Runnable callback) {
+        
+        try {
+            callback.run();
+        } catch (Exception e) {
+            handleException(e);
+        }
+        
+    }
+    
+    private void runRejectCallback(@NotNull Callback<@NotNull Throwable> callback, @NotNull Throwable reason) {
+        
+        try {
+            callback.run(reason);
+        } catch (Exception e) {
+            handleException(e);
+        }
+        
+    }
+    
+    /**
+     * A link in the callback chain of a pending promise, run once the promise
+     * is settled.
+     *
+     * @param <T> The type of the promise
+     */
+    abstract static class Completion<T> {
+        
+        @Nullable Completion<T> next;
+        
+        /**
+         * Whether the completion no longer needs to run and may be unlinked
+         * from the callback chain.
+         *
+         * @return Whether the completion is disposed
+         * @see #unlinkDisposed()
+         */
+        boolean isDisposed() { return false; }
+        
+        /**
+         * Runs the completion.
+         *
+         * @param promise The settled promise
+         */
+        abstract void run(@NotNull AbstractPromise<T> promise);
+        
+    }
+    
+    private static final class FulfilCompletion<T> extends Completion<T> {
+        
+        private final Callback<? super T> callback;
+        
+        private FulfilCompletion(@NotNull Callback<? super T> callback) { this.callback = callback; }
+        
+        @Override
+        void run(@NotNull AbstractPromise<T> promise) {
+            
+            if (promise.getState() == State.RESOLVED) promise.runCallback(callback);
+            
+        }
+        
+    }
+    
+    private static final class RunnableCompletion<T> extends Completion<T> {
+        
+        private final Runnable callback;
+        
+        private RunnableCompletion(@NotNull Runnable callback) { this.callback = callback; }
+        
+        @Override
+        void run(@NotNull AbstractPromise<T> promise) {
+            
+            if (promise.getState() == State.RESOLVED) promise.runRunnable(callback);
+            
+        }
+        
+    }
+    
+    private static final class RejectCompletion<T> extends Completion<T> {
+        
+        private final Callback<@NotNull Throwable> callback;
+        
+        private RejectCompletion(@NotNull Callback<@NotNull Throwable> callback) { this.callback = callback; }
+        
+        @Override
+        void run(@NotNull AbstractPromise<T> promise) {
+            
+            Throwable reason = promise.reason();
+            if (reason != null) promise.runRejectCallback(callback, reason);
+            
+        }
+        
+    }
+    
+    private static final class AfterCompletion<T> extends Completion<T> {
+        
+        private final Runnable callback;
+        
+        private AfterCompletion(@NotNull Runnable callback) { this.callback = callback; }
+        
+        @Override
+        void run(@NotNull AbstractPromise<T> promise) {
+            
+            try {
+                callback.run();
+            } catch (Exception e) {
+                promise.handleException(e);
+            }
+            
+        }
+        
+    }
+    
+    private static final class FutureCompletion<T> extends Completion<T> {
+        
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        
+        @Override
+        void run(@NotNull AbstractPromise<T> promise) {
+            
+            Throwable reason = promise.reason();
+            
+            if (reason != null) future.completeExceptionally(reason);
+            else future.complete(promise.result());
+            
+        }
+        
+    }
+    
+    private static final class Waiter<T> extends Completion<T> {
+        
+        private final Thread thread;
+        private volatile boolean disposed;
+        
+        private Waiter(@NotNull Thread thread) { this.thread = thread; }
+        
+        @Override
+        boolean isDisposed() { return disposed; }
+        
+        @Override
+        void run(@NotNull AbstractPromise<T> promise) { if (!disposed) LockSupport.unpark(thread); }
+        
+    }
+    
+    private static final class Rejection {
+        
+        private final Throwable reason;
+        
+        private Rejection(@NotNull Throwable reason) { this.reason = reason; }
         
     }
     
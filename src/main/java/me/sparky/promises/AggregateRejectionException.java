@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception a promise is rejected with when all the promises it depends on
+ * are rejected, or some of them for {@link MapConcurrentPromise}. The reasons
+ * are also added as suppressed exceptions.
+ *
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#any(List)
+ * @see Promise#mapConcurrent(Iterable, java.util.function.Function, int)
+ */
+public class AggregateRejectionException extends PromiseRejectionException {
+    
+    private final List<Throwable> reasons;
+    
+    /**
+     * Constructs a new <code>AggregateRejectionException</code> with
+     * specified reasons.
+     *
+     * @param reasons The reasons of the rejected promises, in the order the
+     *                promises were inputted
+     * @throws IllegalArgumentException if reasons is null
+     * @since 1.5
+     */
+    public AggregateRejectionException(@NotNull Throwable @NotNull ... reasons) {
+        
+        this("All promises were rejected", reasons);
+        
+    }
+    
+    /**
+     * Constructs a new <code>AggregateRejectionException</code> with
+     * specified message and reasons.
+     *
+     * @param message The message
+     * @param reasons The reasons of the rejected promises, in the order the
+     *                promises were inputted
+     * @throws IllegalArgumentException if reasons is null
+     * @since 1.5
+     */
+    public AggregateRejectionException(@NotNull String message, @NotNull Throwable @NotNull ... reasons) {
+        
+        super(message);
+        
+        this.reasons = Collections.unmodifiableList(Arrays.asList(reasons.clone()));
+        for (Throwable reason : reasons)
+            addSuppressed(reason);
+        
+    }
+    
+    /**
+     * Gets the reasons of the rejected promises, in the order the promises
+     * were inputted.
+     *
+     * @return An unmodifiable list of the reasons
+     * @since 1.5
+     */
+    @NotNull
+    public List<@NotNull Throwable> getReasons() { return reasons; }
+    
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * A promise that resolves to a <code>double[]</code> of the results of its input
+ * promises, in the order they were inputted, once they are all resolved, and
+ * is rejected if any of them are rejected. Nothing is boxed and nothing is
+ * allocated per result.
+ *
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#allDouble(Collection)
+ * @see Promise#allDouble(DoublePromise[])
+ */
+public class AllDoublePromise extends AllPrimitivePromise<double[], Double> {
+    
+    /**
+     * Constructs an <code>AllDoublePromise</code> with specified promises.
+     *
+     * @param promises The promises
+     * @throws IllegalArgumentException if promises is null or contains null
+     * @since 1.5
+     */
+    public AllDoublePromise(@NotNull Collection<@NotNull DoublePromise> promises) { super(promises, new double[promises.size()]); }
+    
+    @Override
+    @NotNull
+    Input input(int index) { return new Input(index); }
+    
+    private final class Input extends DoublePromise.DoubleSubscription {
+        
+        private final int index;
+        
+        private Input(int index) { this.index = index; }
+        
+        @Override
+        void onResolveDouble(double result) {
+            
+            results[index] = result;
+            inputResolved();
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { tryReject(reason); }
+        
+    }
+    
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+
+/**
+ * A promise that resolves to the outcome of each input promise, its result or
+ * the reason for its rejection, when they are all settled (completed).
+ *
+ * @param <T> The type of the promises
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#allSettledOutcomes(Collection)
+ * @see Promise#allSettledOutcomes(Promise[])
+ */
+public class AllOutcomesPromise<T> extends AbstractCompletablePromise<Outcomes<T>> {
+    
+    private static final VarHandle REMAINING;
+    
+    static {
+        
+        try {
+            REMAINING = MethodHandles.lookup().findVarHandle(AllOutcomesPromise.class, "remaining", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Outcomes<T> outcomes;
+    private final Subscription<?>[] inputs;
+    private volatile int remaining;
+    
+    /**
+     * Constructs an <code>AllOutcomesPromise</code> with specified promises.
+     *
+     * @param promises The promises
+     * @throws IllegalArgumentException if promises is null
+     * @since 1.5
+     */
+    public AllOutcomesPromise(@NotNull Collection<@NotNull Promise<T>> promises) {
+        
+        this.outcomes = new Outcomes<>(promises.size(), true);
+        this.inputs = new Subscription<?>[promises.size()];
+        this.remaining = promises.size();
+        
+        if (remaining == 0) {
+            resolve(outcomes);
+            return;
+        }
+        
+        int i = 0;
+        for (Promise<T> promise : promises) {
+            Input input = new Input(i);
+            inputs[i++] = input;
+            input.subscribe(promise);
+        }
+        
+    }
+    
+    /**
+     * Unsubscribes from the input promises and cancels the ones that nothing
+     * else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        for (Subscription<?> input : inputs)
+            if (input != null) input.cancelSource();
+        
+    }
+    
+    private void countDown() {
+        
+        if ((int) REMAINING.getAndAdd(this, -1) == 1) tryResolve(outcomes);
+        
+    }
+    
+    private final class Input extends Subscription<T> {
+        
+        private final int index;
+        
+        private Input(int index) { this.index = index; }
+        
+        @Override
+        void onResolve(T result) {
+            
+            outcomes.resolve(index, result);
+            countDown();
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) {
+            
+            outcomes.reject(index, reason);
+            countDown();
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+
+/**
+ * Provides the counting of the promises that resolve to a primitive array of
+ * the results of their input promises. Each input writes its unboxed result
+ * into its own slot of the array and counts down an atomic counter, so nothing
+ * is boxed and nothing is allocated per result.
+ *
+ * Subclasses only create the array and the inputs that write into it.
+ *
+ * @param <A> The type of the primitive array
+ * @param <B> The boxed type of the results of the input promises
+ * @author Sparky
+ * @since 1.5
+ */
+abstract class AllPrimitivePromise<A, B> extends AbstractCompletablePromise<A> {
+    
+    private static final VarHandle REMAINING;
+    
+    static {
+        
+        try {
+            REMAINING = MethodHandles.lookup().findVarHandle(AllPrimitivePromise.class, "remaining", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    final A results;
+    private final Subscription<?>[] inputs;
+    private volatile int remaining;
+    
+    AllPrimitivePromise(@NotNull Collection<? extends @NotNull Promise<B>> promises, @NotNull A results) {
+        
+        for (Promise<?> promise : promises)
+            if (promise == null) throw new IllegalArgumentException("Collection has null value inside of it");
+        
+        this.results = results;
+        this.inputs = new Subscription<?>[promises.size()];
+        this.remaining = inputs.length;
+        
+        if (inputs.length == 0) {
+            tryResolve(results);
+            return;
+        }
+        
+        int i = 0;
+        for (Promise<B> promise : promises) {
+            Subscription<B> input = input(i);
+            inputs[i++] = input;
+            input.subscribe(promise);
+        }
+        
+    }
+    
+    /**
+     * Creates the input that writes the result of a promise into the array.
+     * The input calls {@link #inputResolved()} after writing its result and
+     * rejects the promise if its promise is rejected.
+     *
+     * @param index The index of the result in the array
+     * @return The input
+     */
+    @NotNull
+    abstract Subscription<B> input(int index);
+    
+    /**
+     * Counts down the inputs and resolves the promise with the array once all
+     * of them are resolved.
+     */
+    final void inputResolved() {
+        
+        // The count down publishes the write of the result to the last input
+        if ((int) REMAINING.getAndAdd(this, -1) == 1) tryResolve(results);
+        
+    }
+    
+    /**
+     * Unsubscribes from the input promises and cancels the ones that nothing
+     * else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        for (Subscription<?> input : inputs)
+            if (input != null) input.cancelSource();
+        
+    }
+    
+}
@@ -18,7 +18,9 @@ package me.sparky.promises;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -29,6 +31,11 @@ import java.util.List;
  * order they were inputted when all of its inputs promises are resolved and
  * rejected if any of its inputs are rejected.
  *
+ * Each input writes its value into its own slot of a pre-sized array and
+ * counts down an atomic counter, so inputs may resolve concurrently without
+ * contending on a lock. The resolved list is an unmodifiable view of that
+ * array.
+ *
  * @param <T> The type of the promises
  * @author Sparky
  * @since 1.0
@@ -36,9 +43,22 @@ import java.util.List;
  * @see Promise#all(Promise[])
  */
 public class AllPromise<T> extends AbstractCompletablePromise<List<? super T>> {
-
-    private final List<T> results;
-    private int amountOfResolvedPromises;
+    
+    private static final VarHandle REMAINING;
+    
+    static {
+        
+        try {
+            REMAINING = MethodHandles.lookup().findVarHandle(AllPromise.class, "remaining", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Object[] results;
+    private final Subscription<?>[] inputs;
+    private volatile int remaining;
     
     /**
      * Constructs an <code>AllPromise</code> with specified promises.
@@ -51,25 +71,36 @@ public class AllPromise<T> extends AbstractCompletablePromise<List<? super T>> {
         
         checkCollectionForNull(promises);
         
-        this.amountOfResolvedPromises = promises.size();
-        this.results = new ArrayList<>(Collections.nCopies(promises.size(), null));
-        
-        for (int i = 0; i < promises.size(); i++) {
-            int finalI = i;
-            promises.get(i)
-                    .then((value) -> {
-                        if (state != State.PENDING) return;
-                        results.set(finalI, value);
-                        synchronized (this) {
-                            if (--amountOfResolvedPromises == 0) resolve(results);
-                        }
-                    })
-                    .catchException((reason) -> {
-                        if (state == State.PENDING)
-                            reject(reason);
-                    });
+        this.results = new Object[promises.size()];
+        this.inputs = new Subscription<?>[results.length];
+        this.remaining = results.length;
+        
+        if (results.length == 0) {
+            resolve(Collections.emptyList());
+            return;
         }
-            
+        
+        int i = 0;
+        for (Promise<T> promise : promises) {
+            Input input = new Input(i);
+            inputs[i++] = input;
+            input.subscribe(promise);
+        }
+        
+    }
+    
+    /**
+     * Unsubscribes from the input promises and cancels the ones that nothing
+     * else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        for (Subscription<?> input : inputs)
+            if (input != null) input.cancelSource();
+        
     }
     
     /**
@@ -93,4 +124,26 @@ public class AllPromise<T> extends AbstractCompletablePromise<List<? super T>> {
         
     }
     
+    private final class Input extends Subscription<T> {
+        
+        private final int index;
+        
+        private Input(int index) { this.index = index; }
+        
+        @Override
+        void onResolve(T result) {
+            
+            results[index] = result;
+            
+            // The count down publishes the write above to the last input
+            if ((int) REMAINING.getAndAdd(AllPromise.this, -1) == 1)
+                tryResolve(Collections.unmodifiableList(Arrays.asList(results)));
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { tryReject(reason); }
+        
+    }
+    
 }
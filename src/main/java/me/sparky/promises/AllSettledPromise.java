@@ -18,24 +18,41 @@ package me.sparky.promises;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * A promise that resolves to a list of each input promise's state when they
  * are all settled (completed).
  *
+ * The states are packed into a bitset and the resolved list is an
+ * unmodifiable view of it.
+ *
  * @author Sparky
  * @since 1.2
  * @see Promise#allSettled(Collection)
  * @see Promise#allSettled(Promise[])
+ * @see AllOutcomesPromise
  */
 public class AllSettledPromise extends AbstractCompletablePromise<List<Promise.State>> {
     
-    private final List<State> outcomes;
-    private int i = 0;
+    private static final VarHandle REMAINING;
+    
+    static {
+        
+        try {
+            REMAINING = MethodHandles.lookup().findVarHandle(AllSettledPromise.class, "remaining", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Outcomes<Object> outcomes;
+    private final Subscription<?>[] inputs;
+    private volatile int remaining;
     
     /**
      * Constructs an <code>AllSettledPromise</code> with specified promises.
@@ -44,32 +61,64 @@ public class AllSettledPromise extends AbstractCompletablePromise<List<Promise.S
      * @throws IllegalArgumentException if promises is null
      * @since 1.2
      */
+    @SuppressWarnings("unchecked")
     public AllSettledPromise(@NotNull Collection<@NotNull Promise<?>> promises) {
         
-        this.outcomes = new ArrayList<>(Collections.nCopies(promises.size(), null));
+        this.outcomes = new Outcomes<>(promises.size(), false);
+        this.inputs = new Subscription<?>[promises.size()];
+        this.remaining = promises.size();
         
-        int i = 0;
+        if (remaining == 0) {
+            resolve(outcomes.states());
+            return;
+        }
         
+        int i = 0;
         for (Promise<?> promise : promises) {
-    
-            int finalI = i;
-            promise
-                    .then(() -> settle(finalI, State.RESOLVED))
-                    .catchException((unused) -> settle(finalI, State.REJECTED));
-            i++;
-            
+            Input input = new Input(i);
+            inputs[i++] = input;
+            input.subscribe((Promise<Object>) promise);
         }
         
     }
     
-    private void settle(int i, State state) {
+    /**
+     * Unsubscribes from the input promises and cancels the ones that nothing
+     * else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        for (Subscription<?> input : inputs)
+            if (input != null) input.cancelSource();
+        
+    }
+    
+    private void countDown() {
+        
+        if ((int) REMAINING.getAndAdd(this, -1) == 1) tryResolve(outcomes.states());
+        
+    }
+    
+    private final class Input extends Subscription<Object> {
+        
+        private final int index;
+        
+        private Input(int index) { this.index = index; }
         
-        outcomes.set(i, state);
-        this.i++;
+        @Override
+        void onResolve(Object result) { countDown(); }
         
-        if (this.i >= outcomes.size())
-            resolve(outcomes);
+        @Override
+        void onReject(@NotNull Throwable reason) {
             
+            outcomes.reject(index, reason);
+            countDown();
+            
+        }
+        
     }
     
 }
@@ -18,12 +18,17 @@ package me.sparky.promises;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
 
 /**
  * Represents a promise that resolves when any of its input promises are
- * completed. This promise will not be rejected if any of it's input
- * promises are rejected.
+ * resolved. This promise is only rejected once all of its input promises
+ * are rejected, with an {@link AggregateRejectionException}.
+ *
+ * Once this promise is resolved it unsubscribes from the inputs that are
+ * still pending, so slow inputs do not keep it reachable.
  *
  * @param <T> The type of the promises
  * @author Sparky
@@ -33,20 +38,103 @@ import java.util.List;
  */
 public class AnyPromise<T> extends AbstractCompletablePromise<T> {
     
+    private static final VarHandle REMAINING;
+    
+    static {
+        
+        try {
+            REMAINING = MethodHandles.lookup().findVarHandle(AnyPromise.class, "remaining", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Subscription<?>[] inputs;
+    private final Throwable[] reasons;
+    private volatile int remaining;
+    
+    /**
+     * The number of inputs that have been subscribed to. Written after each
+     * subscription so that a winner sees every input it has to unsubscribe
+     * from, unless the constructor sees the winner and unsubscribes itself.
+     */
+    private volatile int subscribed;
+    
     /**
-     * Constructs a new <code>AllPromise</code> with specified promises.
+     * Constructs a new <code>AnyPromise</code> with specified promises.
      *
      * @param promises The promises
      * @throws IllegalArgumentException if promises is null
      * @since 1.0
      */
     public AnyPromise(@NotNull List<@NotNull Promise<T>> promises) {
+        
+        this.inputs = new Subscription<?>[promises.size()];
+        this.reasons = new Throwable[promises.size()];
+        this.remaining = promises.size();
+        
+        if (remaining == 0) {
+            reject(new AggregateRejectionException());
+            return;
+        }
+        
+        int i = 0;
+        for (Promise<T> promise : promises) {
+            if (getState() != State.PENDING) break;
+            Input input = new Input(i);
+            inputs[i++] = input;
+            input.subscribe(promise);
+            subscribed = i;
+        }
+        
+        if (getState() == State.RESOLVED) unsubscribeAll();
+        
+    }
     
-        for (Promise<T> promise : promises)
-            promise.then((value) -> {
-                if (state != State.RESOLVED) resolve(value);
-            });
+    /**
+     * Unsubscribes from the input promises and cancels the ones that nothing
+     * else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        for (int i = 0, n = subscribed; i < n; i++)
+            inputs[i].cancelSource();
+        
+    }
+    
+    private void unsubscribeAll() {
+        
+        for (int i = 0, n = subscribed; i < n; i++)
+            inputs[i].unsubscribe();
+        
+    }
     
+    private final class Input extends Subscription<T> {
+        
+        private final int index;
+        
+        private Input(int index) { this.index = index; }
+        
+        @Override
+        void onResolve(T result) {
+            
+            if (tryResolve(result)) unsubscribeAll();
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) {
+            
+            reasons[index] = reason;
+            if ((int) REMAINING.getAndAdd(AnyPromise.this, -1) == 1)
+                tryReject(new AggregateRejectionException(reasons));
+            
+        }
+        
     }
     
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An iterator over promises in the order they settle (complete), like
+ * {@link java.util.concurrent.ExecutorCompletionService} does for tasks. Each
+ * promise is returned once it is settled, so results can be processed as
+ * soon as they are available instead of after the slowest promise.
+ *
+ * The promises hand themselves over through a lock-free queue as they
+ * settle, on whichever thread settles them. Like other iterators it is meant
+ * to be consumed by a single thread.
+ *
+ * @param <T> The type of the promises
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#inCompletionOrder(Collection)
+ */
+public final class CompletionOrder<T> implements Iterator<Promise<T>> {
+    
+    private final LinkedTransferQueue<Promise<T>> settled = new LinkedTransferQueue<>();
+    private int remaining;
+    
+    /**
+     * Constructs a new <code>CompletionOrder</code> with specified promises.
+     *
+     * @param promises The promises
+     * @throws IllegalArgumentException if promises is null
+     */
+    CompletionOrder(@NotNull Collection<@NotNull Promise<T>> promises) {
+        
+        this.remaining = promises.size();
+        
+        for (Promise<T> promise : promises)
+            new Input(promise).subscribe(promise);
+        
+    }
+    
+    /**
+     * Checks whether there are promises that have not been returned yet.
+     *
+     * @return Whether there are promises left
+     * @since 1.5
+     */
+    @Override
+    public boolean hasNext() { return remaining > 0; }
+    
+    /**
+     * Waits for the next promise to settle and returns it. If the thread is
+     * interrupted while waiting it carries on waiting, and the interrupt
+     * status is set again before returning.
+     *
+     * @return The next promise to settle
+     * @throws NoSuchElementException if every promise has been returned
+     * @since 1.5
+     */
+    @Override
+    @NotNull
+    public Promise<T> next() {
+        
+        checkRemaining();
+        
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return returned(settled.take());
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        
+    }
+    
+    /**
+     * Waits for the next promise to settle and returns it.
+     *
+     * @return The next promise to settle
+     * @throws NoSuchElementException if every promise has been returned
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @since 1.5
+     */
+    @NotNull
+    public Promise<T> take() throws InterruptedException {
+        
+        checkRemaining();
+        
+        return returned(settled.take());
+        
+    }
+    
+    /**
+     * Returns the next promise to settle if one has already settled.
+     *
+     * @return The next settled promise, or null if none have settled
+     * @since 1.5
+     */
+    @Nullable
+    public Promise<T> poll() {
+        
+        Promise<T> promise = settled.poll();
+        return promise == null ? null : returned(promise);
+        
+    }
+    
+    /**
+     * Waits up to the specified time for the next promise to settle and
+     * returns it.
+     *
+     * @param timeout How long to wait
+     * @param unit The unit of timeout
+     * @return The next settled promise, or null if none settled in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws IllegalArgumentException if unit is null
+     * @since 1.5
+     */
+    @Nullable
+    public Promise<T> poll(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        
+        Promise<T> promise = settled.poll(timeout, unit);
+        return promise == null ? null : returned(promise);
+        
+    }
+    
+    /**
+     * Gets the number of promises that have not been returned yet, whether
+     * or not they have settled.
+     *
+     * @return The number of promises left
+     * @since 1.5
+     */
+    public int remaining() { return remaining; }
+    
+    private void checkRemaining() {
+        
+        if (remaining == 0) throw new NoSuchElementException("Every promise has been returned");
+        
+    }
+    
+    @NotNull
+    private Promise<T> returned(@NotNull Promise<T> promise) {
+        
+        remaining--;
+        return promise;
+        
+    }
+    
+    private final class Input extends Subscription<T> {
+        
+        private final Promise<T> promise;
+        
+        private Input(@NotNull Promise<T> promise) { this.promise = promise; }
+        
+        @Override
+        void onResolve(T result) { settled.offer(promise); }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { settled.offer(promise); }
+        
+    }
+    
+}
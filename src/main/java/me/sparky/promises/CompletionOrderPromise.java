@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Represents a promise that calls a sink with each of its input promises in
+ * the order they settle (complete), and resolves once the sink has been
+ * called for every input.
+ *
+ * The sink is never called concurrently. Inputs that settle while it is
+ * running are handed over through a lock-free queue to the thread that is
+ * calling it, so it runs on whichever thread settled an input without ever
+ * blocking. Exceptions thrown by the sink are handed to the
+ * {@link PromiseRuntime} exception handler.
+ *
+ * @param <T> The type of the promises
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#inCompletionOrder(Collection, Callback)
+ */
+public class CompletionOrderPromise<T> extends AbstractCompletablePromise<Void> {
+    
+    private static final VarHandle WIP;
+    
+    static {
+        
+        try {
+            WIP = MethodHandles.lookup().findVarHandle(CompletionOrderPromise.class, "wip", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Callback<Promise<T>> sink;
+    private final Queue<Promise<T>> settled = new ConcurrentLinkedQueue<>();
+    private final Subscription<?>[] inputs;
+    
+    // Only accessed by the thread that is calling the sink
+    private int remaining;
+    
+    private volatile int subscribed;
+    private volatile int wip;
+    
+    /**
+     * Constructs a new <code>CompletionOrderPromise</code> with specified
+     * promises and sink.
+     *
+     * @param promises The promises
+     * @param sink Called with each promise once it is settled
+     * @throws IllegalArgumentException if promises or sink are null
+     * @since 1.5
+     */
+    public CompletionOrderPromise(@NotNull Collection<@NotNull Promise<T>> promises,
+                                  @NotNull Callback<Promise<T>> sink) {
+        
+        this.sink = sink;
+        this.inputs = new Subscription<?>[promises.size()];
+        this.remaining = inputs.length;
+        
+        int i = 0;
+        for (Promise<T> promise : promises) {
+            if (getState() != State.PENDING) break;
+            Input input = new Input(promise);
+            inputs[i++] = input;
+            input.subscribe(promise);
+            subscribed = i;
+        }
+        
+        if (inputs.length == 0) tryResolve(null);
+        
+    }
+    
+    /**
+     * Stops calling the sink, unsubscribes from the input promises and
+     * cancels the ones that nothing else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        for (int i = 0, n = subscribed; i < n; i++)
+            inputs[i].cancelSource();
+        
+    }
+    
+    private void drain() {
+        
+        if ((int) WIP.getAndAdd(this, 1) != 0) return;
+        
+        int missed = 1;
+        do {
+            
+            Promise<T> promise;
+            while (getState() == State.PENDING && (promise = settled.poll()) != null) {
+                try {
+                    sink.run(promise);
+                } catch (Exception e) {
+                    handleException(e);
+                }
+                if (--remaining == 0) tryResolve(null);
+            }
+            
+            missed = (int) WIP.getAndAdd(this, -missed) - missed;
+            
+        } while (missed != 0);
+        
+    }
+    
+    private final class Input extends Subscription<T> {
+        
+        private final Promise<T> promise;
+        
+        private Input(@NotNull Promise<T> promise) { this.promise = promise; }
+        
+        @Override
+        void onResolve(T result) { settled(); }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { settled(); }
+        
+        private void settled() {
+            
+            CompletionOrderPromise.this.settled.offer(promise);
+            drain();
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A promise that is settled the same way as a {@link CompletionStage}, such as
+ * a {@link java.util.concurrent.CompletableFuture}. The promise is settled by
+ * the thread that completes the stage.
+ *
+ * @param <T> The type of the completion stage
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#fromFuture(CompletionStage)
+ */
+public class CompletionStagePromise<T> extends AbstractCompletablePromise<T> {
+    
+    /**
+     * Constructs a new <code>CompletionStagePromise</code>
+     *
+     * @param stage The completion stage
+     * @throws IllegalArgumentException if stage is null
+     * @since 1.5
+     */
+    public CompletionStagePromise(@NotNull CompletionStage<T> stage) {
+        
+        stage.whenComplete((result, reason) -> {
+            if (reason == null) tryResolve(result);
+            else tryReject(unwrap(reason));
+        });
+        
+    }
+    
+    /**
+     * Completion stages that depend on other stages wrap the reason for their
+     * failure in a {@link CompletionException}.
+     */
+    @NotNull
+    private static Throwable unwrap(@NotNull Throwable reason) {
+        
+        if (reason instanceof CompletionException && reason.getCause() != null) return reason.getCause();
+        return reason;
+        
+    }
+    
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+
+/**
+ * A promise that is settled the same way as the promise returned by the
+ * function when the current promise is resolved, and is rejected when the
+ * current promise is rejected or if the function fails.
+ *
+ * @param <T> The type of the promise returned by the function
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#flatMap(Function)
+ */
+public class FlatMapPromise<T> extends AbstractCompletablePromise<T> {
+    
+    private final Subscription<?> source;
+    @Nullable private volatile Subscription<?> inner;
+    
+    /**
+     * Constructs a new <code>FlatMapPromise</code>
+     *
+     * @param from The promise being mapped from
+     * @param flatMap The function
+     * @param <F> The type of the promise being mapped
+     * @throws IllegalArgumentException if from or flatMap are null
+     * @since 1.5
+     */
+    public <F> FlatMapPromise(@NotNull Promise<F> from, @NotNull Function<F, Promise<T>> flatMap) {
+        
+        Source<F> source = new Source<>(flatMap);
+        this.source = source;
+        source.subscribe(from);
+        
+    }
+    
+    /**
+     * Unsubscribes from the promise being mapped and the promise returned by
+     * the function, and cancels them if nothing else is subscribed to them.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        source.cancelSource();
+        
+        Subscription<?> inner = this.inner;
+        if (inner != null) inner.cancelSource();
+        
+    }
+    
+    private final class Source<F> extends Subscription<F> {
+        
+        private final Function<F, Promise<T>> flatMap;
+        
+        private Source(@NotNull Function<F, Promise<T>> flatMap) { this.flatMap = flatMap; }
+        
+        @Override
+        void onResolve(F value) {
+            
+            Promise<T> promise;
+            try {
+                promise = flatMap.apply(value);
+            } catch (Exception e) {
+                tryReject(e);
+                return;
+            }
+            
+            if (promise == null) {
+                tryReject(new NullPointerException("flatMap function returned null"));
+                return;
+            }
+            
+            Subscription<?> inner = settleWith(promise);
+            if (inner != null) {
+                FlatMapPromise.this.inner = inner;
+                // The promise may have been cancelled before inner was set
+                if (getState() == State.CANCELLED) inner.cancelSource();
+            }
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { tryReject(reason); }
+        
+    }
+    
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A timer that runs tasks after a delay, with the precision of a tick. Tasks
+ * are kept in a wheel of buckets, one for each tick of a rotation, and a
+ * single worker thread expires the tasks in one bucket per tick. Scheduling
+ * and cancelling a task are a single compare-and-set each and never contend
+ * on a lock or a shared delay queue, which suits timeouts that are almost
+ * always cancelled before they expire.
+ *
+ * The worker thread is a daemon thread that is started when the first task is
+ * scheduled and parks while there are no tasks. Tasks run on the worker
+ * thread, so they should be short and hand longer work to an executor.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+final class HashedWheelTimer implements PromiseTimer {
+    
+    /**
+     * The furthest a task can be scheduled in the future, about 73 years, so
+     * that deadlines never overflow.
+     */
+    private static final long MAX_DELAY = Long.MAX_VALUE >> 2;
+    
+    private static final VarHandle PENDING;
+    private static final VarHandle STARTED;
+    
+    static {
+        
+        try {
+            PENDING = MethodHandles.lookup().findVarHandle(HashedWheelTimer.class, "pending", Timeout.class);
+            STARTED = MethodHandles.lookup().findVarHandle(HashedWheelTimer.class, "started", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final long tickNanos;
+    private final Timeout[] wheel;
+    private final int mask;
+    private final String threadName;
+    
+    /**
+     * The stack of tasks that were scheduled since the worker last moved them
+     * into the wheel.
+     */
+    @Nullable private volatile Timeout pending;
+    private volatile boolean started;
+    @Nullable private volatile Thread worker;
+    private volatile boolean idle;
+    
+    // Only accessed by the worker thread
+    private long startTime;
+    private long tick;
+    private int count;
+    
+    /**
+     * Constructs a new <code>HashedWheelTimer</code>.
+     *
+     * @param tick The duration of a tick
+     * @param ticksPerWheel The number of ticks in a rotation of the wheel,
+     *                      rounded up to a power of two
+     * @param threadName The name of the worker thread
+     */
+    HashedWheelTimer(@NotNull Duration tick, int ticksPerWheel, @NotNull String threadName) {
+        
+        this.tickNanos = Math.max(1L, tick.toNanos());
+        this.wheel = new Timeout[Integer.highestOneBit(Math.max(1, ticksPerWheel - 1)) << 1];
+        this.mask = wheel.length - 1;
+        this.threadName = threadName;
+        
+    }
+    
+    /**
+     * Converts a duration to nanoseconds, saturating instead of overflowing.
+     *
+     * @param duration The duration
+     * @return The duration in nanoseconds
+     */
+    static long toNanos(@NotNull Duration duration) {
+        
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        
+    }
+    
+    @Override
+    @NotNull
+    public Timeout schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        
+        return schedule(task, unit.toNanos(delay));
+        
+    }
+    
+    /**
+     * Schedules a task to run after the specified delay. Delays that are not
+     * positive run the task on the next tick.
+     *
+     * @param task The task
+     * @param delayNanos The delay in nanoseconds
+     * @return The handle to cancel the task with
+     */
+    @NotNull
+    Timeout schedule(@NotNull Runnable task, long delayNanos) {
+        
+        Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(0L, Math.min(delayNanos, MAX_DELAY)),
+                PromiseRuntime.current().exceptionHandler());
+        
+        Timeout head;
+        do {
+            head = pending;
+            timeout.next = head;
+        } while (!PENDING.compareAndSet(this, head, timeout));
+        
+        Thread worker = this.worker;
+        if (worker == null) start();
+        else if (idle) LockSupport.unpark(worker);
+        
+        return timeout;
+        
+    }
+    
+    private void start() {
+        
+        if (!STARTED.compareAndSet(this, false, true)) return;
+        
+        Thread worker = new Thread(this::work, threadName);
+        worker.setDaemon(true);
+        this.worker = worker;
+        worker.start();
+        
+    }
+    
+    private void work() {
+        
+        startTime = System.nanoTime();
+        
+        while (true) {
+            
+            transferPending();
+            
+            if (count == 0) {
+                idle = true;
+                if (pending == null) LockSupport.park(this);
+                idle = false;
+                // Nothing is in the wheel, so the ticks that passed can be skipped
+                tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+                continue;
+            }
+            
+            long sleep = startTime + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleep > 0L) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            
+            expire((int) (tick & mask));
+            tick++;
+            
+        }
+        
+    }
+    
+    /**
+     * Moves the tasks that were scheduled into the bucket of the tick they
+     * expire on, counting the rotations of the wheel they have to wait for.
+     */
+    private void transferPending() {
+        
+        Timeout timeout = (Timeout) PENDING.getAndSet(this, null);
+        
+        while (timeout != null) {
+            
+            Timeout next = timeout.next;
+            
+            if (!timeout.isDone()) {
+                // The tick whose end is the first at or after the deadline
+                long expiry = Math.max(tick, (timeout.deadline - startTime + tickNanos - 1) / tickNanos - 1);
+                int bucket = (int) (expiry & mask);
+                
+                timeout.rounds = (expiry - tick) / wheel.length;
+                timeout.next = wheel[bucket];
+                wheel[bucket] = timeout;
+                count++;
+            }
+            
+            timeout = next;
+            
+        }
+        
+    }
+    
+    private void expire(int bucket) {
+        
+        Timeout previous = null;
+        Timeout timeout = wheel[bucket];
+        
+        while (timeout != null) {
+            
+            Timeout next = timeout.next;
+            
+            if (timeout.isDone() || timeout.rounds <= 0) {
+                if (previous == null) wheel[bucket] = next;
+                else previous.next = next;
+                timeout.next = null;
+                count--;
+                timeout.expire();
+            } else {
+                timeout.rounds--;
+                previous = timeout;
+            }
+            
+            timeout = next;
+            
+        }
+        
+    }
+    
+    /**
+     * A task scheduled on the timer.
+     */
+    static final class Timeout implements Scheduled {
+        
+        private static final VarHandle TASK;
+        
+        static {
+            
+            try {
+                TASK = MethodHandles.lookup().findVarHandle(Timeout.class, "task", Runnable.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+            
+        }
+        
+        /**
+         * The task, cleared once it has run or been cancelled so that a
+         * cancelled timeout does not retain it until its bucket is expired.
+         */
+        @Nullable private volatile Runnable task;
+        private final long deadline;
+        
+        /**
+         * The exception handler of the runtime that scheduled the task, since
+         * the worker thread has no runtime scope.
+         */
+        private final Consumer<@NotNull Throwable> exceptionHandler;
+        
+        @Nullable private Timeout next;
+        private long rounds;
+        
+        private Timeout(@NotNull Runnable task, long deadline, @NotNull Consumer<@NotNull Throwable> exceptionHandler) {
+            
+            this.task = task;
+            this.deadline = deadline;
+            this.exceptionHandler = exceptionHandler;
+            
+        }
+        
+        @Override
+        public boolean cancel() { return TASK.getAndSet(this, null) != null; }
+        
+        /**
+         * Whether the task has run or been cancelled.
+         *
+         * @return Whether the task is done
+         */
+        boolean isDone() { return task == null; }
+        
+        private void expire() {
+            
+            Runnable task = (Runnable) TASK.getAndSet(this, null);
+            if (task == null) return;
+            
+            // Errors are caught too, since the worker is never restarted
+            try {
+                task.run();
+            } catch (Throwable e) {
+                try {
+                    exceptionHandler.accept(e);
+                } catch (Throwable handlerFailure) {
+                    handlerFailure.addSuppressed(e);
+                    handlerFailure.printStackTrace();
+                }
+            }
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Represents a promise that does not start its work until it is needed. The
+ * work is started by {@link #start()}, or as soon as a callback, waiter or
+ * dependent promise is first attached, for example by {@link #then(Callback)},
+ * {@link #await()} or {@link #transform(java.util.function.Function)}. Methods
+ * that only look at the promise, such as {@link #getState()} and
+ * {@link #getNow(Object)}, do not start it.
+ *
+ * The work is only ever started once, and every subscriber shares its
+ * outcome. Cancelling the promise before it is started means it never starts.
+ *
+ * @param <T> The type of the promise
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#lazy(Supplier)
+ */
+public class LazyPromise<T> extends SettleablePromise<T> {
+    
+    private static final VarHandle BODY;
+    
+    static {
+        
+        try {
+            BODY = MethodHandles.lookup().findVarHandle(LazyPromise.class, "body", Runnable.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    /**
+     * Starts the work, cleared once it has been started or the promise is
+     * cancelled.
+     */
+    @Nullable private volatile Runnable body;
+    @Nullable private volatile FutureTask<Void> task;
+    @Nullable private volatile Subscription<?> link;
+    
+    /**
+     * Constructs a new <code>LazyPromise</code> whose executor is run by the
+     * executor of the {@link PromiseRuntime#current() current runtime} once
+     * the promise is started.
+     *
+     * @param executor A callback which takes in 1 argument the promise and
+     *                 reject or resolve the promise
+     * @throws IllegalArgumentException if executor is null
+     * @since 1.5
+     */
+    public LazyPromise(@NotNull me.sparky.promises.Executor<T> executor) {
+        
+        this(executor, PromiseRuntime.current().executor());
+        
+    }
+    
+    /**
+     * Constructs a new <code>LazyPromise</code> whose executor is run by the
+     * specified thread pool once the promise is started.
+     *
+     * @param executor A callback which takes in 1 argument the promise and
+     *                 reject or resolve the promise
+     * @param threadPool The executor that executes
+     * @throws IllegalArgumentException if executor or threadPool is null
+     * @since 1.5
+     */
+    public LazyPromise(@NotNull me.sparky.promises.Executor<T> executor, @NotNull Executor threadPool) {
+        
+        if (executor == null) throw new IllegalArgumentException("executor must not be null");
+        if (threadPool == null) throw new IllegalArgumentException("threadPool must not be null");
+        
+        this.body = () -> {
+            
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                
+                if (getState() != State.PENDING) return;
+                
+                try {
+                    executor.execute(this);
+                } catch (Exception e) {
+                    tryReject(e);
+                }
+                
+            }, null);
+            
+            this.task = task;
+            
+            try {
+                threadPool.execute(task);
+            } catch (RejectedExecutionException e) {
+                tryReject(e);
+            }
+            
+        };
+        
+    }
+    
+    /**
+     * Constructs a new <code>LazyPromise</code> that is settled the same way
+     * as the promise returned by the supplier, which is called on the thread
+     * that starts the promise.
+     *
+     * @param supplier Supplies the promise to settle with
+     * @throws IllegalArgumentException if supplier is null
+     * @since 1.5
+     */
+    public LazyPromise(@NotNull Supplier<@NotNull Promise<T>> supplier) {
+        
+        if (supplier == null) throw new IllegalArgumentException("supplier must not be null");
+        
+        this.body = () -> {
+            
+            Promise<T> promise;
+            try {
+                promise = supplier.get();
+            } catch (Exception e) {
+                tryReject(e);
+                return;
+            }
+            
+            if (promise == null) tryReject(new NullPointerException("lazy supplier returned null"));
+            else link = settleWith(promise);
+            
+            // The promise may have been cancelled before the link was set
+            Subscription<?> link = this.link;
+            if (link != null && getState() == State.CANCELLED) link.cancelSource();
+            
+        };
+        
+    }
+    
+    /**
+     * Starts the work if it has not been started yet.
+     *
+     * @return Whether this call started the work
+     * @since 1.5
+     */
+    public boolean start() {
+        
+        Runnable body = this.body;
+        if (body == null || !BODY.compareAndSet(this, body, null)) return false;
+        
+        body.run();
+        return true;
+        
+    }
+    
+    /**
+     * Cancels the work, so it never starts if it has not started yet, the
+     * executor is interrupted if it is running and the supplied promise is
+     * cancelled if nothing else is subscribed to it.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        body = null;
+        
+        FutureTask<Void> task = this.task;
+        if (task != null) task.cancel(true);
+        
+        Subscription<?> link = this.link;
+        if (link != null) link.cancelSource();
+        
+    }
+    
+    @Override
+    boolean push(@NotNull Completion<T> completion) {
+        
+        if (body != null) start();
+        
+        return super.push(completion);
+        
+    }
+    
+}
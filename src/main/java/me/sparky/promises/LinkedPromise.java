@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A promise that is settled by a single subscription to the promise it
+ * depends on, like the target of a transform. Cancelling the promise
+ * unsubscribes from that promise and cancels it if nothing else is subscribed
+ * to it.
+ *
+ * @param <T> The type of the promise
+ * @author Sparky
+ * @since 1.5
+ * @see PrimitivePromise
+ */
+class LinkedPromise<T> extends AbstractCompletablePromise<T> {
+    
+    @Nullable private volatile Subscription<?> link;
+    
+    /**
+     * Subscribes the link that settles this promise to the promise it depends
+     * on, so that cancelling this promise cancels that one.
+     *
+     * @param source The promise this promise depends on
+     * @param link The subscription that settles this promise
+     * @param <S> The type of the promise this promise depends on
+     */
+    final <S> void link(@NotNull Promise<S> source, @NotNull Subscription<S> link) {
+        
+        this.link = link;
+        link.subscribe(source);
+        
+    }
+    
+    /**
+     * Unsubscribes from the promise this promise depends on, if any, and
+     * cancels it if nothing else is subscribed to it.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        Subscription<?> link = this.link;
+        if (link != null) link.cancelSource();
+        
+    }
+    
+}
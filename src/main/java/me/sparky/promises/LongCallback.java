@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+/**
+ * Represents a lambda that is called back with a <code>long</code>, without
+ * boxing it.
+ *
+ * @author Sparky
+ * @since 1.5
+ * @see LongPromise#thenLong(LongCallback)
+ */
+@FunctionalInterface
+public interface LongCallback {
+    
+    /**
+     * This is the method to call back.
+     *
+     * @param result The result
+     * @since 1.5
+     */
+    void run(long result) throws Exception;
+    
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongFunction;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Represents a promise of a <code>long</code> that keeps its result unboxed.
+ * The primitive callbacks, transforms and getters read the result without
+ * boxing it, and {@link Promise#allLong(java.util.Collection)} collects the
+ * results of many of them into an <code>long[]</code>. Through the
+ * {@link Promise} API it behaves like any other <code>Promise&lt;Long&gt;</code>,
+ * boxing the result when it is read.
+ *
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#transformToLong(ToLongFunction)
+ */
+public class LongPromise extends PrimitivePromise<Long> {
+    
+    /**
+     * The result, written by the call that claimed the promise before it
+     * settles it, and read once the promise is resolved.
+     */
+    private long value;
+    
+    /**
+     * Constructs a new pending <code>LongPromise</code>.
+     *
+     * @since 1.5
+     */
+    public LongPromise() { }
+    
+    /**
+     * Creates a resolved <code>LongPromise</code>.
+     *
+     * @param result The result of the promise
+     * @return The resolved promise
+     * @since 1.5
+     */
+    @NotNull
+    public static LongPromise resolved(long result) {
+        
+        LongPromise promise = new LongPromise();
+        promise.tryResolve(result);
+        return promise;
+        
+    }
+    
+    /**
+     * Resolves the promise with specified value. Resolving a cancelled
+     * promise is ignored.
+     *
+     * @param result The result of the promise
+     * @throws IllegalStateException if state is not {@link State#PENDING} or
+     * {@link State#CANCELLED}
+     * @since 1.5
+     */
+    public void resolve(long result) { checkResolved(tryResolve(result)); }
+    
+    /**
+     * Resolves the promise with specified value if it is still pending.
+     *
+     * @param result The result of the promise
+     * @return Whether the promise was resolved by this call
+     * @since 1.5
+     */
+    public boolean tryResolve(long result) {
+        
+        if (!claim()) return false;
+        
+        value = result;
+        return settle(null, null);
+        
+    }
+    
+    @Override
+    boolean tryResolveUnboxed(@NotNull Long result) { return tryResolve(result.longValue()); }
+    
+    /**
+     * Adds a callback that is called with the unboxed result once the
+     * promise is resolved.
+     *
+     * @param fulfil The callback
+     * @return This promise
+     * @throws IllegalArgumentException if fulfil is null
+     * @since 1.5
+     */
+    @NotNull
+    public LongPromise thenLong(@NotNull LongCallback fulfil) {
+        
+        if (fulfil == null) throw new IllegalArgumentException("fulfil must not be null");
+        
+        LongSubscription completion = new LongSubscription() {
+            
+            @Override
+            void onResolveLong(long result) {
+                
+                try {
+                    fulfil.run(result);
+                } catch (Exception e) {
+                    handleException(e);
+                }
+                
+            }
+            
+            @Override
+            void onReject(@NotNull Throwable reason) { }
+            
+        };
+        
+        completion.subscribe(this);
+        return this;
+        
+    }
+    
+    /**
+     * Adds a transform function to be applied on fulfil that returns a new
+     * <code>long</code> from the result, without boxing either of them.
+     *
+     * @param transform The transform function
+     * @return The transform promise, rejected if this promise is rejected or
+     * the transform function fails
+     * @throws IllegalArgumentException if transform is null
+     * @since 1.5
+     */
+    @NotNull
+    public LongPromise transformLong(@NotNull LongUnaryOperator transform) {
+        
+        if (transform == null) throw new IllegalArgumentException("transform must not be null");
+        
+        LongPromise target = new LongPromise();
+        target.link(this, new LongSubscription() {
+            
+            @Override
+            void onResolveLong(long result) {
+                
+                long transformed;
+                try {
+                    transformed = transform.applyAsLong(result);
+                } catch (Exception e) {
+                    target.tryReject(e);
+                    return;
+                }
+                
+                target.tryResolve(transformed);
+                
+            }
+            
+            @Override
+            void onReject(@NotNull Throwable reason) { target.tryReject(reason); }
+            
+        });
+        
+        return target;
+        
+    }
+    
+    /**
+     * Adds a transform function to be applied on fulfil that returns a new
+     * <code>int</code> from the result, without boxing either of them.
+     *
+     * @param transform The transform function
+     * @return The transform promise, rejected if this promise is rejected or
+     * the transform function fails
+     * @throws IllegalArgumentException if transform is null
+     * @since 1.5
+     */
+    @NotNull
+    public IntPromise transformLongToInt(@NotNull LongToIntFunction transform) {
+        
+        if (transform == null) throw new IllegalArgumentException("transform must not be null");
+        
+        IntPromise target = new IntPromise();
+        target.link(this, new LongSubscription() {
+            
+            @Override
+            void onResolveLong(long result) {
+                
+                int transformed;
+                try {
+                    transformed = transform.applyAsInt(result);
+                } catch (Exception e) {
+                    target.tryReject(e);
+                    return;
+                }
+                
+                target.tryResolve(transformed);
+                
+            }
+            
+            @Override
+            void onReject(@NotNull Throwable reason) { target.tryReject(reason); }
+            
+        });
+        
+        return target;
+        
+    }
+    
+    /**
+     * Adds a transform function to be applied on fulfil that returns a new
+     * <code>double</code> from the result, without boxing either of them.
+     *
+     * @param transform The transform function
+     * @return The transform promise, rejected if this promise is rejected or
+     * the transform function fails
+     * @throws IllegalArgumentException if transform is null
+     * @since 1.5
+     */
+    @NotNull
+    public DoublePromise transformLongToDouble(@NotNull LongToDoubleFunction transform) {
+        
+        if (transform == null) throw new IllegalArgumentException("transform must not be null");
+        
+        DoublePromise target = new DoublePromise();
+        target.link(this, new LongSubscription() {
+            
+            @Override
+            void onResolveLong(long result) {
+                
+                double transformed;
+                try {
+                    transformed = transform.applyAsDouble(result);
+                } catch (Exception e) {
+                    target.tryReject(e);
+                    return;
+                }
+                
+                target.tryResolve(transformed);
+                
+            }
+            
+            @Override
+            void onReject(@NotNull Throwable reason) { target.tryReject(reason); }
+            
+        });
+        
+        return target;
+        
+    }
+    
+    /**
+     * Adds a transform function to be applied on fulfil that returns a new
+     * value from the unboxed result.
+     *
+     * @param transform The transform function
+     * @param <R> The type of the transformed value
+     * @return The transform promise, rejected if this promise is rejected or
+     * the transform function fails
+     * @throws IllegalArgumentException if transform is null
+     * @since 1.5
+     */
+    @NotNull
+    public <R> Promise<R> transformLongToObj(@NotNull LongFunction<R> transform) {
+        
+        if (transform == null) throw new IllegalArgumentException("transform must not be null");
+        
+        LinkedPromise<R> target = new LinkedPromise<>();
+        target.link(this, new LongSubscription() {
+            
+            @Override
+            void onResolveLong(long result) {
+                
+                R transformed;
+                try {
+                    transformed = transform.apply(result);
+                } catch (Exception e) {
+                    target.tryReject(e);
+                    return;
+                }
+                
+                target.tryResolve(transformed);
+                
+            }
+            
+            @Override
+            void onReject(@NotNull Throwable reason) { target.tryReject(reason); }
+            
+        });
+        
+        return target;
+        
+    }
+    
+    /**
+     * Gets the unboxed result of the promise without waiting.
+     *
+     * @param valueIfPending The value to return if the promise is pending
+     * @return The result of the promise, or valueIfPending if it is pending
+     * @throws PromiseRejectionException if the promise was rejected, with the
+     * reason for the rejection as its cause
+     * @since 1.5
+     */
+    public long getNowLong(long valueIfPending) { return hasResult() ? value : valueIfPending; }
+    
+    /**
+     * Waits until the promise is completed and returns its unboxed result.
+     *
+     * @return The result of the promise
+     * @throws PromiseRejectionException if the promise was rejected, with the
+     * reason for the rejection as its cause
+     * @since 1.5
+     */
+    public long joinLong() {
+        
+        await();
+        return getNowLong(value);
+        
+    }
+    
+    @Override
+    @NotNull
+    Long boxed() { return value; }
+    
+    /**
+     * Creates a promise that resolves to the transformed result of a promise.
+     *
+     * @param source The promise being transformed
+     * @param transform The transform function
+     * @param <F> The type of the promise being transformed
+     * @return The transform promise
+     * @throws IllegalArgumentException if transform is null
+     */
+    @NotNull
+    static <F> LongPromise transform(@NotNull Promise<F> source, @NotNull ToLongFunction<F> transform) {
+        
+        if (transform == null) throw new IllegalArgumentException("transform must not be null");
+        
+        LongPromise target = new LongPromise();
+        target.link(source, new Subscription<F>() {
+            
+            @Override
+            void onResolve(F result) {
+                
+                long transformed;
+                try {
+                    transformed = transform.applyAsLong(result);
+                } catch (Exception e) {
+                    target.tryReject(e);
+                    return;
+                }
+                
+                target.tryResolve(transformed);
+                
+            }
+            
+            @Override
+            void onReject(@NotNull Throwable reason) { target.tryReject(reason); }
+            
+        });
+        
+        return target;
+        
+    }
+    
+    /**
+     * A subscription to a <code>LongPromise</code> that is called with its
+     * unboxed result.
+     */
+    abstract static class LongSubscription extends Subscription<Long> {
+        
+        /**
+         * Called when the promise is resolved.
+         *
+         * @param result The result of the promise
+         */
+        abstract void onResolveLong(long result);
+        
+        @Override
+        final void onResolve(Long result) { onResolveLong(result); }
+        
+        @Override
+        final void resolved(@NotNull AbstractPromise<Long> promise) {
+            
+            if (promise instanceof LongPromise) onResolveLong(((LongPromise) promise).value);
+            else super.resolved(promise);
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A promise that maps each item to a promise with at most a fixed number of
+ * the promises pending at a time, and resolves to their results in the order
+ * of the items. The next item is only mapped once one of the pending promises
+ * settles, so items are pulled from the iterable as they are needed.
+ *
+ * If a promise is rejected the promise is either rejected straight away and
+ * the pending promises are cancelled, or it is rejected with an
+ * {@link AggregateRejectionException} of every failure once all the items are
+ * done.
+ *
+ * Items are mapped by one thread at a time: whichever thread settles a
+ * promise either maps the next items itself or hands them to the thread that
+ * is already mapping, so the mapping never recurses and never blocks.
+ *
+ * @param <I> The type of the items
+ * @param <O> The type of the mapped promises
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#mapConcurrent(Iterable, Function, int)
+ * @see Promise#mapConcurrent(Iterable, Function, int, boolean)
+ */
+public class MapConcurrentPromise<I, O> extends AbstractCompletablePromise<List<O>> {
+    
+    private static final VarHandle ACTIVE;
+    private static final VarHandle WIP;
+    
+    static {
+        
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ACTIVE = lookup.findVarHandle(MapConcurrentPromise.class, "active", int.class);
+            WIP = lookup.findVarHandle(MapConcurrentPromise.class, "wip", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Function<I, Promise<O>> mapper;
+    private final int parallelism;
+    private final boolean abortOnFailure;
+    
+    // Only accessed by the thread that is mapping
+    private final Iterator<I> iterator;
+    private final List<Input> inputs = new ArrayList<>();
+    private boolean exhausted;
+    
+    private volatile int active;
+    private volatile int wip;
+    private volatile boolean failed;
+    
+    /**
+     * Constructs a new <code>MapConcurrentPromise</code> and maps the first
+     * items on the current thread.
+     *
+     * @param items The items
+     * @param mapper Maps an item to a promise
+     * @param parallelism The maximum number of pending promises
+     * @param abortOnFailure Whether to reject the promise and cancel the
+     *                       pending promises as soon as a promise is rejected
+     * @throws IllegalArgumentException if items or mapper are null, or
+     * parallelism is less than 1
+     * @since 1.5
+     */
+    public MapConcurrentPromise(@NotNull Iterable<I> items,
+                                @NotNull Function<I, Promise<O>> mapper,
+                                int parallelism,
+                                boolean abortOnFailure) {
+        
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1");
+        
+        this.iterator = items.iterator();
+        this.mapper = mapper;
+        this.parallelism = parallelism;
+        this.abortOnFailure = abortOnFailure;
+        
+        drain();
+        
+    }
+    
+    /**
+     * Unsubscribes from the pending promises and cancels the ones that nothing
+     * else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() { drain(); }
+    
+    /**
+     * Maps items while fewer than parallelism promises are pending, and
+     * settles this promise once every item is done. Only one thread drains at
+     * a time, the calls that arrive meanwhile make it loop again.
+     */
+    private void drain() {
+        
+        if ((int) WIP.getAndAdd(this, 1) != 0) return;
+        
+        int missed = 1;
+        do {
+            
+            if (getState() != State.PENDING) cancelPending();
+            else map();
+            
+            missed = (int) WIP.getAndAdd(this, -missed) - missed;
+            
+        } while (missed != 0);
+        
+    }
+    
+    private void map() {
+        
+        try {
+            while ((int) ACTIVE.get(this) < parallelism && !exhausted) {
+                if (iterator.hasNext()) start(iterator.next());
+                else exhausted = true;
+            }
+        } catch (Exception e) {
+            tryReject(e);
+            cancelPending();
+            return;
+        }
+        
+        if (exhausted && active == 0) finish();
+        
+    }
+    
+    private void start(I item) {
+        
+        Input input = new Input();
+        inputs.add(input);
+        ACTIVE.getAndAdd(this, 1);
+        
+        Promise<O> promise;
+        try {
+            promise = mapper.apply(item);
+        } catch (Exception e) {
+            input.onReject(e);
+            return;
+        }
+        
+        if (promise == null) input.onReject(new NullPointerException("mapConcurrent function returned null"));
+        else input.subscribe(promise);
+        
+    }
+    
+    private void finish() {
+        
+        Object[] results = new Object[inputs.size()];
+        List<Throwable> reasons = failed ? new ArrayList<>() : null;
+        
+        for (int i = 0; i < results.length; i++) {
+            Input input = inputs.get(i);
+            if (input.reason != null) reasons.add(input.reason);
+            else results[i] = input.result;
+        }
+        
+        inputs.clear();
+        
+        if (reasons != null) tryReject(new AggregateRejectionException(
+                reasons.size() + " of " + results.length + " promises were rejected",
+                reasons.toArray(new Throwable[0])));
+        else tryResolve(uncheckedList(results));
+        
+    }
+    
+    private void cancelPending() {
+        
+        for (Input input : inputs)
+            if (!input.settled) input.cancelSource();
+        
+        inputs.clear();
+        exhausted = true;
+        
+    }
+    
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private List<O> uncheckedList(@NotNull Object[] results) {
+        
+        return (List<O>) Collections.unmodifiableList(Arrays.asList(results));
+        
+    }
+    
+    private final class Input extends Subscription<O> {
+        
+        @Nullable private O result;
+        @Nullable private Throwable reason;
+        private volatile boolean settled;
+        
+        @Override
+        void onResolve(O result) {
+            
+            this.result = result;
+            settled();
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) {
+            
+            this.reason = reason;
+            failed = true;
+            if (abortOnFailure) tryReject(reason);
+            settled();
+            
+        }
+        
+        private void settled() {
+            
+            settled = true;
+            // The count down publishes the outcome to the thread that finishes
+            ACTIVE.getAndAdd(MapConcurrentPromise.this, -1);
+            drain();
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The outcomes of a number of settled promises, in the order the promises were
+ * inputted. Each outcome is either the result of a resolved promise or the
+ * reason of a rejected promise.
+ *
+ * Whether each promise was rejected or cancelled is packed into bitsets, so the
+ * states of a large number of promises take up two bits each.
+ *
+ * @param <T> The type of the promises
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#allSettledOutcomes(java.util.Collection)
+ */
+public final class Outcomes<T> {
+    
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    
+    private final int size;
+    @Nullable private final Object[] values;
+    private final long[] rejected;
+    private final long[] cancelled;
+    
+    /**
+     * Constructs a new <code>Outcomes</code>. Every outcome is resolved with
+     * null until it is set.
+     *
+     * @param size The number of outcomes
+     * @param keepValues Whether to keep results and reasons, or only states
+     */
+    Outcomes(int size, boolean keepValues) {
+        
+        this.size = size;
+        this.values = keepValues ? new Object[size] : null;
+        this.rejected = new long[(size + Long.SIZE - 1) / Long.SIZE];
+        this.cancelled = new long[rejected.length];
+        
+    }
+    
+    /**
+     * Sets the outcome at the specified index to resolved. Different indexes
+     * may be set concurrently.
+     *
+     * @param index The index of the outcome
+     * @param result The result
+     */
+    void resolve(int index, T result) {
+        
+        if (values != null) values[index] = result;
+        
+    }
+    
+    /**
+     * Sets the outcome at the specified index to rejected. Different indexes
+     * may be set concurrently.
+     *
+     * @param index The index of the outcome
+     * @param reason The reason for the rejection
+     */
+    void reject(int index, @NotNull Throwable reason) {
+        
+        if (values != null) values[index] = reason;
+        if (reason instanceof CancellationException) WORDS.getAndBitwiseOr(cancelled, index >>> 6, 1L << index);
+        WORDS.getAndBitwiseOr(rejected, index >>> 6, 1L << index);
+        
+    }
+    
+    /**
+     * Gets the number of outcomes.
+     *
+     * @return The number of outcomes
+     * @since 1.5
+     */
+    public int size() { return size; }
+    
+    /**
+     * Gets the state of the promise at the specified index, either
+     * {@link Promise.State#RESOLVED}, {@link Promise.State#REJECTED} or
+     * {@link Promise.State#CANCELLED}.
+     *
+     * @param index The index of the promise
+     * @return The state of the promise
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     * @since 1.5
+     */
+    @NotNull
+    public Promise.State getState(int index) {
+        
+        if (!isRejected(Objects.checkIndex(index, size))) return Promise.State.RESOLVED;
+        if (((long) WORDS.getVolatile(cancelled, index >>> 6) & (1L << index)) != 0) return Promise.State.CANCELLED;
+        return Promise.State.REJECTED;
+        
+    }
+    
+    /**
+     * Gets the result of the promise at the specified index.
+     *
+     * @param index The index of the promise
+     * @return The result, or null if the promise was rejected
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     * @since 1.5
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public T getResult(int index) {
+        
+        return isRejected(Objects.checkIndex(index, size)) ? null : (T) values()[index];
+        
+    }
+    
+    /**
+     * Gets the reason for the rejection of the promise at the specified index.
+     *
+     * @param index The index of the promise
+     * @return The reason, or null if the promise was resolved
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     * @since 1.5
+     */
+    @Nullable
+    public Throwable getReason(int index) {
+        
+        return isRejected(Objects.checkIndex(index, size)) ? (Throwable) values()[index] : null;
+        
+    }
+    
+    /**
+     * Gets an unmodifiable view of the states of the promises.
+     *
+     * @return The states
+     * @since 1.5
+     */
+    @NotNull
+    public List<Promise.State> states() { return new States(); }
+    
+    private boolean isRejected(int index) {
+        
+        return ((long) WORDS.getVolatile(rejected, index >>> 6) & (1L << index)) != 0;
+        
+    }
+    
+    @NotNull
+    private Object[] values() {
+        
+        if (values == null) throw new IllegalStateException("Only the states of the outcomes were kept");
+        return values;
+        
+    }
+    
+    private final class States extends AbstractList<Promise.State> implements RandomAccess {
+        
+        @Override
+        public Promise.State get(int index) { return getState(index); }
+        
+        @Override
+        public int size() { return size; }
+        
+    }
+    
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Provides the settling of the primitive promises, which keep their result in
+ * a primitive field instead of boxing it into the promise's state. Only one
+ * call may settle the promise, so it is claimed before the result is written,
+ * and the result is published by settling the promise with null. The boxed
+ * result is only created if it is read through the {@link Promise} API.
+ *
+ * Subclasses only hold the primitive field and the typed methods that read
+ * and write it.
+ *
+ * @param <T> The boxed type of the promise
+ * @author Sparky
+ * @since 1.5
+ * @see IntPromise
+ * @see LongPromise
+ * @see DoublePromise
+ */
+abstract class PrimitivePromise<T> extends LinkedPromise<T> {
+    
+    private static final VarHandle CLAIMED;
+    
+    static {
+        
+        try {
+            CLAIMED = MethodHandles.lookup().findVarHandle(PrimitivePromise.class, "claimed", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private volatile boolean claimed;
+    
+    /**
+     * Claims the right to settle the promise.
+     *
+     * @return Whether this call claimed it
+     */
+    final boolean claim() { return !claimed && CLAIMED.compareAndSet(this, false, true); }
+    
+    /**
+     * Throws if the typed resolve of a subclass did not resolve the promise,
+     * like {@link #resolve(Object)}.
+     *
+     * @param resolved Whether the promise was resolved
+     * @throws IllegalStateException if the promise was not resolved and is
+     * not cancelled
+     */
+    final void checkResolved(boolean resolved) {
+        
+        if (!resolved && getState() != State.CANCELLED)
+            throw new IllegalStateException("Promise has already been completed");
+        
+    }
+    
+    /**
+     * Whether the typed result can be read.
+     *
+     * @return Whether the promise is resolved, false if it is pending
+     * @throws PromiseRejectionException if the promise was rejected, with the
+     * reason for the rejection as its cause
+     */
+    final boolean hasResult() {
+        
+        switch (getState()) {
+            case PENDING:
+                return false;
+            case RESOLVED:
+                return true;
+            default:
+                throw new PromiseRejectionException(reason());
+        }
+        
+    }
+    
+    /**
+     * Resolves the promise with the unboxed value.
+     *
+     * @param result The result of the promise, not null
+     * @return Whether the promise was resolved by this call
+     */
+    abstract boolean tryResolveUnboxed(@NotNull T result);
+    
+    /**
+     * Boxes the result, only called once the promise is resolved.
+     *
+     * @return The boxed result
+     */
+    @NotNull
+    abstract T boxed();
+    
+    /**
+     * Resolves the promise with the unboxed value.
+     *
+     * @param result The result of the promise
+     * @return Whether the promise was settled by this call, rejected with a
+     * {@link NullPointerException} if result is null
+     * @since 1.5
+     */
+    @Override
+    protected boolean tryResolve(T result) {
+        
+        if (result == null)
+            return tryReject(new NullPointerException(getClass().getSimpleName() + " cannot be resolved with null"));
+        
+        return tryResolveUnboxed(result);
+        
+    }
+    
+    @Override
+    protected boolean tryReject(@NotNull Throwable reason) {
+        
+        if (reason == null) throw new IllegalArgumentException("reason must not be null");
+        
+        return claim() && super.tryReject(reason);
+        
+    }
+    
+    @Override
+    public void reject(@NotNull Throwable reason) { super.reject(reason); }
+    
+    @Override
+    public void reject(@NotNull String reason) { super.reject(reason); }
+    
+    @Override
+    public T getNow(T valueIfPending) { return hasResult() ? boxed() : valueIfPending; }
+    
+    @Override
+    @Nullable
+    T result() { return getState() == State.RESOLVED ? boxed() : null; }
+    
+}
@@ -17,49 +17,78 @@
 package me.sparky.promises;
 
 import org.jetbrains.annotations.Blocking;
+import org.jetbrains.annotations.NonBlocking;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * Represents the completion of a value that has not yet been retrieved.
  *
  * @author Sparky
  * @since 1.0
+ * @see AllOutcomesPromise
  * @see AllPromise
  * @see AllSettledPromise
  * @see AnyPromise
+ * @see CompletionStagePromise
+ * @see FlatMapPromise
+ * @see MapConcurrentPromise
+ * @see LazyPromise
+ * @see IntPromise
+ * @see LongPromise
+ * @see DoublePromise
+ * @see CompletionOrderPromise
+ * @see RacePromise
  * @see RejectedPromise
  * @see ResolvedPromise
+ * @see RetryPromise
+ * @see ScheduledPromise
  * @see SettleablePromise
+ * @see TimeoutPromise
  * @see TransformPromise
  * @see WhenAllPromise
  */
 public interface Promise<T> {
     
     /**
-     * Creates a new resolved promise.
+     * Creates a new resolved promise. Resolved promises are immutable, so the
+     * promises for null, booleans and small integers are shared instances.
      *
      * @param result The result of the resolved promise
      * @param <T> The type of the resolved promise
-     * @return The newly created promise
+     * @return The resolved promise
      * @since 1.0
      */
     @NotNull
-    static <T> Promise<T> resolve(@Nullable T result) { return new ResolvedPromise<>(result); }
+    static <T> Promise<T> resolve(@Nullable T result) { return ResolvedPromise.of(result); }
     
     /**
-     * Creates a new void resolved promise.
+     * Creates a new void resolved promise, which is a shared instance.
      *
-     * @return The newly created promise
+     * @return The resolved promise
      * @since 1.4.1
      */
     @NotNull
-    static Promise<Void> resolve() { return new ResolvedPromise<>(null); }
+    static Promise<Void> resolve() { return ResolvedPromise.of(null); }
     
     /**
      * Creates a new rejected promise.
@@ -132,8 +161,9 @@ public interface Promise<T> {
     
     /**
      * Creates a new <code>AnyPromise</code>. This promise will be resolved
-     * when any of the promise inputs are resolved and will not be rejected if
-     * input promises are rejected.
+     * when any of the promise inputs are resolved. It will only be rejected
+     * once all of the promise inputs are rejected, with an
+     * {@link AggregateRejectionException}.
      *
      * @param promises The input promises
      * @param <T> The type of the promise
@@ -150,8 +180,9 @@ public interface Promise<T> {
     
     /**
      * Creates a new <code>AnyPromise</code>. This promise will be resolved
-     * when any of the promise inputs are resolved and will not be rejected
-     * if input promises are rejected.
+     * when any of the promise inputs are resolved. It will only be rejected
+     * once all of the promise inputs are rejected, with an
+     * {@link AggregateRejectionException}.
      *
      * @param promises The input promises
      * @param <T> The type of the promise
@@ -167,6 +198,287 @@ public interface Promise<T> {
     
     }
     
+    /**
+     * Creates a new <code>MapConcurrentPromise</code>. Each item is mapped to
+     * a promise with at most parallelism promises pending at a time, and the
+     * next item is mapped as soon as one of them settles. This promise is
+     * resolved with the results in the order of the items once they are all
+     * resolved. If any are rejected it is rejected with an
+     * {@link AggregateRejectionException} of every failure once all the items
+     * are done.
+     *
+     * @param items The items
+     * @param mapper Maps an item to a promise
+     * @param parallelism The maximum number of pending promises
+     * @param <I> The type of the items
+     * @param <O> The type of the mapped promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if items or mapper are null, or
+     * parallelism is less than 1
+     * @since 1.5
+     */
+    @NotNull
+    static <I, O> Promise<List<O>> mapConcurrent(@NotNull Iterable<I> items,
+                                                 @NotNull Function<I, Promise<O>> mapper,
+                                                 int parallelism) {
+        
+        return mapConcurrent(items, mapper, parallelism, false);
+        
+    }
+    
+    /**
+     * Creates a new <code>MapConcurrentPromise</code>. Each item is mapped to
+     * a promise with at most parallelism promises pending at a time, and the
+     * next item is mapped as soon as one of them settles. This promise is
+     * resolved with the results in the order of the items once they are all
+     * resolved.
+     *
+     * @param items The items
+     * @param mapper Maps an item to a promise
+     * @param parallelism The maximum number of pending promises
+     * @param abortOnFailure Whether to reject this promise with the reason of
+     *                       the first promise that is rejected and cancel the
+     *                       pending promises, rather than reject it with an
+     *                       {@link AggregateRejectionException} of every
+     *                       failure once all the items are done
+     * @param <I> The type of the items
+     * @param <O> The type of the mapped promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if items or mapper are null, or
+     * parallelism is less than 1
+     * @since 1.5
+     */
+    @NotNull
+    static <I, O> Promise<List<O>> mapConcurrent(@NotNull Iterable<I> items,
+                                                 @NotNull Function<I, Promise<O>> mapper,
+                                                 int parallelism,
+                                                 boolean abortOnFailure) {
+        
+        return new MapConcurrentPromise<>(items, mapper, parallelism, abortOnFailure);
+        
+    }
+    
+    /**
+     * Creates a new <code>CompletionOrder</code>. The iterator returns each of
+     * the promises once it is settled (completed), in the order they settle,
+     * waiting for the next one to settle if none have yet.
+     *
+     * @param promises The promises
+     * @param <T> The type of the promises
+     * @return The newly created iterator
+     * @throws IllegalArgumentException if promises is null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> CompletionOrder<T> inCompletionOrder(@NotNull Collection<@NotNull Promise<T>> promises) {
+        
+        return new CompletionOrder<>(promises);
+        
+    }
+    
+    /**
+     * Creates a new <code>CompletionOrderPromise</code>. The sink is called
+     * with each of the promises once it is settled (completed), in the order
+     * they settle and never concurrently. This promise is resolved once the
+     * sink has been called for every promise.
+     *
+     * @param promises The promises
+     * @param sink Called with each promise once it is settled
+     * @param <T> The type of the promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises or sink are null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> Promise<Void> inCompletionOrder(@NotNull Collection<@NotNull Promise<T>> promises,
+                                               @NotNull Callback<Promise<T>> sink) {
+        
+        return new CompletionOrderPromise<>(promises, sink);
+        
+    }
+    
+    /**
+     * Creates a new <code>PromisePublisher</code>. Each subscriber is
+     * published the results of the promises in the order of the iterable,
+     * with promises only taken from the iterable as the subscriber requests
+     * results.
+     *
+     * @param promises The promises
+     * @param maxConcurrency The maximum number of promises to take ahead of
+     *                       the published results
+     * @param <T> The type of the promises
+     * @return The newly created publisher
+     * @throws IllegalArgumentException if promises is null or maxConcurrency
+     * is less than 1
+     * @since 1.5
+     * @see PromisePublisher#generate(Supplier, int)
+     */
+    @NotNull
+    static <T> java.util.concurrent.Flow.Publisher<T> publisher(@NotNull Iterable<? extends Promise<T>> promises,
+                                                                int maxConcurrency) {
+        
+        return PromisePublisher.from(promises, maxConcurrency);
+        
+    }
+    
+    /**
+     * Creates a new <code>LazyPromise</code>. The supplier is only called
+     * once something is attached to this promise or it is started, and at
+     * most once, after which this promise is settled the same way as the
+     * supplied promise.
+     *
+     * @param supplier Supplies the promise to settle with
+     * @param <T> The type of the promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if supplier is null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> LazyPromise<T> lazy(@NotNull Supplier<@NotNull Promise<T>> supplier) {
+        
+        return new LazyPromise<>(supplier);
+        
+    }
+    
+    /**
+     * Creates a new <code>AllIntPromise</code>. This promise will resolve to
+     * an <code>int[]</code> of the results of the promise inputs, in the order
+     * they were inputted, without boxing them.
+     *
+     * @param promises The input promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null or contains null
+     * @since 1.5
+     */
+    @NotNull
+    static Promise<int[]> allInt(@NotNull Collection<@NotNull IntPromise> promises) {
+        
+        return new AllIntPromise(promises);
+        
+    }
+    
+    /**
+     * Creates a new <code>AllIntPromise</code>. This promise will resolve to
+     * an <code>int[]</code> of the results of the promise inputs, in the order
+     * they were inputted, without boxing them.
+     *
+     * @param promises The input promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null or contains null
+     * @since 1.5
+     */
+    @NotNull
+    static Promise<int[]> allInt(@NotNull IntPromise @NotNull ... promises) {
+        
+        return new AllIntPromise(Arrays.asList(promises));
+        
+    }
+    
+    /**
+     * Creates a new <code>AllLongPromise</code>. This promise will resolve to
+     * an <code>long[]</code> of the results of the promise inputs, in the order
+     * they were inputted, without boxing them.
+     *
+     * @param promises The input promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null or contains null
+     * @since 1.5
+     */
+    @NotNull
+    static Promise<long[]> allLong(@NotNull Collection<@NotNull LongPromise> promises) {
+        
+        return new AllLongPromise(promises);
+        
+    }
+    
+    /**
+     * Creates a new <code>AllLongPromise</code>. This promise will resolve to
+     * an <code>long[]</code> of the results of the promise inputs, in the order
+     * they were inputted, without boxing them.
+     *
+     * @param promises The input promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null or contains null
+     * @since 1.5
+     */
+    @NotNull
+    static Promise<long[]> allLong(@NotNull LongPromise @NotNull ... promises) {
+        
+        return new AllLongPromise(Arrays.asList(promises));
+        
+    }
+    
+    /**
+     * Creates a new <code>AllDoublePromise</code>. This promise will resolve to
+     * an <code>double[]</code> of the results of the promise inputs, in the order
+     * they were inputted, without boxing them.
+     *
+     * @param promises The input promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null or contains null
+     * @since 1.5
+     */
+    @NotNull
+    static Promise<double[]> allDouble(@NotNull Collection<@NotNull DoublePromise> promises) {
+        
+        return new AllDoublePromise(promises);
+        
+    }
+    
+    /**
+     * Creates a new <code>AllDoublePromise</code>. This promise will resolve to
+     * an <code>double[]</code> of the results of the promise inputs, in the order
+     * they were inputted, without boxing them.
+     *
+     * @param promises The input promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null or contains null
+     * @since 1.5
+     */
+    @NotNull
+    static Promise<double[]> allDouble(@NotNull DoublePromise @NotNull ... promises) {
+        
+        return new AllDoublePromise(Arrays.asList(promises));
+        
+    }
+    
+    /**
+     * Creates a new <code>RacePromise</code>. This promise will be resolved or
+     * rejected the same way as the first of the promise inputs to settle
+     * (complete).
+     *
+     * @param promises The input promises
+     * @param <T> The type of the promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> Promise<T> race(@NotNull Collection<@NotNull Promise<T>> promises) {
+        
+        return new RacePromise<>(promises);
+        
+    }
+    
+    /**
+     * Creates a new <code>RacePromise</code>. This promise will be resolved or
+     * rejected the same way as the first of the promise inputs to settle
+     * (complete).
+     *
+     * @param promises The input promises
+     * @param <T> The type of the promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null
+     * @since 1.5
+     */
+    @SafeVarargs
+    @NotNull
+    static <T> Promise<T> race(@NotNull Promise<T>... promises) {
+        
+        return race(Arrays.asList(promises));
+        
+    }
+    
     /**
      * Creates a new <code>WhenAllPromise</code>. This promise will be resolved
      * when all input promises are resolved and will be rejected if any of its
@@ -233,6 +545,171 @@ public interface Promise<T> {
     
     }
     
+    /**
+     * Creates a new <code>AllOutcomesPromise</code>. This promise is resolved
+     * with the result or rejection reason of each input when all the inputs
+     * settle (complete).
+     *
+     * @param promises The input promises
+     * @param <T> The type of the input promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> Promise<Outcomes<T>> allSettledOutcomes(@NotNull Collection<@NotNull Promise<T>> promises) {
+        
+        return new AllOutcomesPromise<>(promises);
+        
+    }
+    
+    /**
+     * Creates a new <code>AllOutcomesPromise</code>. This promise is resolved
+     * with the result or rejection reason of each input when all the inputs
+     * settle (complete).
+     *
+     * @param promises The input promises
+     * @param <T> The type of the input promises
+     * @return The newly created promise
+     * @throws IllegalArgumentException if promises is null
+     * @since 1.5
+     */
+    @SafeVarargs
+    @NotNull
+    static <T> Promise<Outcomes<T>> allSettledOutcomes(@NotNull Promise<T>... promises) {
+        
+        return allSettledOutcomes(Arrays.asList(promises));
+        
+    }
+    
+    /**
+     * Creates a promise that is resolved with the specified value after a
+     * delay. The delay does not hold a thread while it waits.
+     *
+     * @param delay The delay
+     * @param value The value to resolve the promise with
+     * @param <T> The type of the promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if delay is null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> Promise<T> delay(@NotNull Duration delay, @Nullable T value) {
+        
+        return new ScheduledPromise<>(delay, () -> value);
+        
+    }
+    
+    /**
+     * Creates a promise that is settled with the outcome of a task that is run
+     * by the {@link PromiseRuntime#executor() default executor} after a
+     * delay.
+     *
+     * @param delay The delay before the task is run
+     * @param task The task
+     * @param <T> The type of the promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if delay or task are null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> Promise<T> schedule(@NotNull Duration delay, @NotNull Callable<T> task) {
+        
+        return schedule(delay, task, PromiseRuntime.current().executor());
+        
+    }
+    
+    /**
+     * Creates a promise that is settled with the outcome of a task that is run
+     * by the specified executor after a delay.
+     *
+     * @param delay The delay before the task is run
+     * @param task The task
+     * @param executor The executor that runs the task
+     * @param <T> The type of the promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if delay, task or executor are null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> Promise<T> schedule(@NotNull Duration delay,
+                                   @NotNull Callable<T> task,
+                                   @NotNull java.util.concurrent.Executor executor) {
+        
+        return new ScheduledPromise<>(delay, task, executor);
+        
+    }
+    
+    /**
+     * Creates a promise that is settled the same way as the first attempt
+     * that succeeds, retrying failed attempts according to the specified
+     * policy. The first attempt is started on the current thread and retries
+     * are started by the {@link PromiseRuntime#executor() default executor}.
+     * No thread is held while waiting between attempts.
+     *
+     * @param supplier Starts an attempt
+     * @param policy The retry policy
+     * @param <T> The type of the promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if supplier or policy are null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> Promise<T> retry(@NotNull Supplier<@NotNull Promise<T>> supplier, @NotNull RetryPolicy policy) {
+        
+        return retry(supplier, policy, PromiseRuntime.current().executor());
+        
+    }
+    
+    /**
+     * Creates a promise that is settled the same way as the first attempt
+     * that succeeds, retrying failed attempts according to the specified
+     * policy. The first attempt is started on the current thread and retries
+     * are started by the specified executor. No thread is held while waiting
+     * between attempts.
+     *
+     * @param supplier Starts an attempt
+     * @param policy The retry policy
+     * @param executor The executor that starts retries
+     * @param <T> The type of the promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if supplier, policy or executor are
+     * null
+     * @since 1.5
+     */
+    @NotNull
+    static <T> Promise<T> retry(@NotNull Supplier<@NotNull Promise<T>> supplier,
+                                @NotNull RetryPolicy policy,
+                                @NotNull java.util.concurrent.Executor executor) {
+        
+        return new RetryPromise<>(supplier, policy, executor);
+        
+    }
+    
+    /**
+     * Creates a promise that is settled the same way as the specified
+     * completion stage. The promise is settled by the thread that completes
+     * the stage, without blocking or handing off to another thread.
+     *
+     * @param stage The completion stage
+     * @param <T> The type of the completion stage
+     * @return The newly created promise
+     * @throws IllegalArgumentException if stage is null
+     * @since 1.5
+     * @see #toCompletableFuture()
+     */
+    @NotNull
+    static <T> Promise<T> fromFuture(@NotNull CompletionStage<T> stage) {
+        
+        if (stage instanceof CompletableFuture) {
+            CompletableFuture<T> future = (CompletableFuture<T>) stage;
+            if (future.isDone() && !future.isCompletedExceptionally()) return resolve(future.join());
+        }
+        
+        return new CompletionStagePromise<>(stage);
+        
+    }
+    
     /**
      * Represents the state of a promise.
      *
@@ -261,7 +738,15 @@ public interface Promise<T> {
          *
          * @since 1.0
          */
-        REJECTED
+        REJECTED,
+        
+        /**
+         * Represents the state of a promise that was cancelled, which is a
+         * promise that was rejected with a {@link CancellationException}.
+         *
+         * @since 1.5
+         */
+        CANCELLED
 
     }
     
@@ -312,6 +797,96 @@ public interface Promise<T> {
     @NotNull
     Promise<T> then(@NotNull Runnable fulfil, @NotNull Callback<@NotNull Throwable> reject);
     
+    /**
+     * Adds a callback to be called on fulfil, which is run by the
+     * {@link PromiseRuntime#executor() default executor} instead of the
+     * thread that resolves the promise.
+     *
+     * @param fulfil The fulfil-callback
+     * @return The promise instance (for chaining)
+     * @throws IllegalArgumentException if fulfil is null
+     * @since 1.5
+     */
+    @NotNull
+    default Promise<T> thenAsync(@NotNull Callback<? super T> fulfil) {
+        
+        return thenAsync(fulfil, PromiseRuntime.current().executor());
+        
+    }
+    
+    /**
+     * Adds a callback to be called on fulfil, which is run by the specified
+     * executor instead of the thread that resolves the promise.
+     *
+     * @param fulfil The fulfil-callback
+     * @param executor The executor that runs the callback
+     * @return The promise instance (for chaining)
+     * @throws IllegalArgumentException if fulfil or executor are null
+     * @since 1.5
+     */
+    @NotNull
+    default Promise<T> thenAsync(@NotNull Callback<? super T> fulfil,
+                                 @NotNull java.util.concurrent.Executor executor) {
+        
+        Consumer<@NotNull Throwable> handler = PromiseRuntime.of(this).exceptionHandler();
+        return then((value) -> executor.execute(() -> runCallback(fulfil, value, handler)));
+        
+    }
+    
+    /**
+     * Adds a transform function to be applied on fulfil that returns an
+     * <code>int</code> from the input value, which the returned promise keeps
+     * unboxed.
+     *
+     * @param transform The transform function
+     * @return The transform promise, rejected if this promise is rejected or
+     * the transform function fails
+     * @throws IllegalArgumentException if transform is null
+     * @since 1.5
+     */
+    @NotNull
+    default IntPromise transformToInt(@NotNull ToIntFunction<T> transform) {
+        
+        return IntPromise.transform(this, transform);
+        
+    }
+    
+    /**
+     * Adds a transform function to be applied on fulfil that returns a
+     * <code>long</code> from the input value, which the returned promise keeps
+     * unboxed.
+     *
+     * @param transform The transform function
+     * @return The transform promise, rejected if this promise is rejected or
+     * the transform function fails
+     * @throws IllegalArgumentException if transform is null
+     * @since 1.5
+     */
+    @NotNull
+    default LongPromise transformToLong(@NotNull ToLongFunction<T> transform) {
+        
+        return LongPromise.transform(this, transform);
+        
+    }
+    
+    /**
+     * Adds a transform function to be applied on fulfil that returns a
+     * <code>double</code> from the input value, which the returned promise keeps
+     * unboxed.
+     *
+     * @param transform The transform function
+     * @return The transform promise, rejected if this promise is rejected or
+     * the transform function fails
+     * @throws IllegalArgumentException if transform is null
+     * @since 1.5
+     */
+    @NotNull
+    default DoublePromise transformToDouble(@NotNull ToDoubleFunction<T> transform) {
+        
+        return DoublePromise.transform(this, transform);
+        
+    }
+    
     /**
      * Adds a transform function to be applied on fulfil that returns a new
      * value from the input value.
@@ -333,6 +908,83 @@ public interface Promise<T> {
         
     }
     
+    /**
+     * Adds a function to be applied on fulfil that returns a new promise from
+     * the input value.
+     *
+     * Returns a new promise that is settled the same way as the promise
+     * returned by the function, and is rejected when the current promise is
+     * rejected or if the function fails. Promises returned by the function
+     * that are already settled are unwrapped immediately.
+     *
+     * @param flatMap The function
+     * @param <R> The type of the returned promise
+     * @return The flat map promise
+     * @throws IllegalArgumentException if flatMap is null
+     * @since 1.5
+     */
+    @NotNull
+    default <R> Promise<R> flatMap(@NotNull Function<T, Promise<R>> flatMap) {
+        
+        return new FlatMapPromise<>(this, flatMap);
+        
+    }
+    
+    /**
+     * Creates a promise that is settled the same way as this promise, or
+     * rejected with a {@link java.util.concurrent.TimeoutException} if this
+     * promise is not settled within the timeout. This promise is cancelled
+     * when the timeout elapses, unless something else is subscribed to it.
+     *
+     * @param timeout The maximum time to wait for this promise
+     * @return The newly created promise
+     * @throws IllegalArgumentException if timeout is null
+     * @since 1.5
+     * @see TimeoutPromise
+     */
+    @NotNull
+    default Promise<T> timeout(@NotNull Duration timeout) { return new TimeoutPromise<>(this, timeout); }
+    
+    /**
+     * Adds a transform function to be applied on fulfil by the
+     * {@link PromiseRuntime#executor() default executor} instead of the
+     * thread that resolves the promise.
+     *
+     * @param transform The transform function
+     * @param <R> The type of the transformed value
+     * @return The transform promise
+     * @throws IllegalArgumentException if transform is null
+     * @since 1.5
+     * @see #transform(Function)
+     */
+    @NotNull
+    default <R> Promise<R> transformAsync(@NotNull Function<T, R> transform) {
+        
+        return transformAsync(transform, PromiseRuntime.current().executor());
+        
+    }
+    
+    /**
+     * Adds a transform function to be applied on fulfil by the specified
+     * executor instead of the thread that resolves the promise. The transform
+     * promise is rejected if the executor does not accept the transform.
+     *
+     * @param transform The transform function
+     * @param executor The executor that applies the transform function
+     * @param <R> The type of the transformed value
+     * @return The transform promise
+     * @throws IllegalArgumentException if transform or executor are null
+     * @since 1.5
+     * @see #transform(Function)
+     */
+    @NotNull
+    default <R> Promise<R> transformAsync(@NotNull Function<T, R> transform,
+                                          @NotNull java.util.concurrent.Executor executor) {
+        
+        return new TransformPromise<>(this, transform, executor);
+        
+    }
+    
     /**
      * Adds a callback to be called when the promise is rejected.
      *
@@ -344,6 +996,43 @@ public interface Promise<T> {
     @NotNull
     Promise<T> catchException(@NotNull Callback<@NotNull Throwable> reject);
     
+    /**
+     * Adds a callback to be called when the promise is rejected, which is run
+     * by the {@link PromiseRuntime#executor() default executor} instead
+     * of the thread that rejects the promise.
+     *
+     * @param reject The reject callback
+     * @return The promise instance (for chaining)
+     * @throws IllegalArgumentException if reject is null
+     * @since 1.5
+     */
+    @NotNull
+    default Promise<T> catchExceptionAsync(@NotNull Callback<@NotNull Throwable> reject) {
+        
+        return catchExceptionAsync(reject, PromiseRuntime.current().executor());
+        
+    }
+    
+    /**
+     * Adds a callback to be called when the promise is rejected, which is run
+     * by the specified executor instead of the thread that rejects the
+     * promise.
+     *
+     * @param reject The reject callback
+     * @param executor The executor that runs the callback
+     * @return The promise instance (for chaining)
+     * @throws IllegalArgumentException if reject or executor are null
+     * @since 1.5
+     */
+    @NotNull
+    default Promise<T> catchExceptionAsync(@NotNull Callback<@NotNull Throwable> reject,
+                                           @NotNull java.util.concurrent.Executor executor) {
+        
+        Consumer<@NotNull Throwable> handler = PromiseRuntime.of(this).exceptionHandler();
+        return catchException((reason) -> executor.execute(() -> runCallback(reject, reason, handler)));
+        
+    }
+    
     /**
      * Adds a callback to be called when promise is either completed (resolved
      * or rejected). In most languages this method would be called <code>finally</code>.
@@ -356,6 +1045,44 @@ public interface Promise<T> {
     @NotNull
     Promise<T> after(@NotNull Runnable runnable);
     
+    /**
+     * Adds a callback to be called when promise is either completed (resolved
+     * or rejected), which is run by the
+     * {@link PromiseRuntime#executor() default executor} instead of the
+     * thread that completes the promise.
+     *
+     * @param runnable The run callback
+     * @return The promise instance (for chaining)
+     * @throws IllegalArgumentException if runnable is null
+     * @since 1.5
+     */
+    @NotNull
+    default Promise<T> afterAsync(@NotNull Runnable runnable) {
+        
+        return afterAsync(runnable, PromiseRuntime.current().executor());
+        
+    }
+    
+    /**
+     * Adds a callback to be called when promise is either completed (resolved
+     * or rejected), which is run by the specified executor instead of the
+     * thread that completes the promise.
+     *
+     * @param runnable The run callback
+     * @param executor The executor that runs the callback
+     * @return The promise instance (for chaining)
+     * @throws IllegalArgumentException if runnable or executor are null
+     * @since 1.5
+     */
+    @NotNull
+    default Promise<T> afterAsync(@NotNull Runnable runnable,
+                                  @NotNull java.util.concurrent.Executor executor) {
+        
+        Consumer<@NotNull Throwable> handler = PromiseRuntime.of(this).exceptionHandler();
+        return after(() -> executor.execute(() -> runCallback(new RunnableCallback<>(runnable), null, handler)));
+        
+    }
+    
     /**
      * Gets the current state of the promise.
      *
@@ -365,6 +1092,18 @@ public interface Promise<T> {
     @NotNull
     State getState();
     
+    /**
+     * Cancels the promise if it is still pending. The promise is rejected
+     * with a {@link CancellationException}, the work that would have settled
+     * it is cancelled, interrupting it if it is running, and so are the
+     * promises it depends on that nothing else is subscribed to.
+     *
+     * @return Whether the promise was cancelled by this call, always false for
+     * promises that cannot be cancelled
+     * @since 1.5
+     */
+    default boolean cancel() { return false; }
+    
     /**
      * Waits until the promise is completed (resolved or rejected).
      *
@@ -373,4 +1112,143 @@ public interface Promise<T> {
     @Blocking
     void await();
     
+    /**
+     * Waits until the promise is completed (resolved or rejected), or until
+     * the timeout elapses.
+     *
+     * @param timeout The maximum time to wait
+     * @return Whether the promise was completed before the timeout elapsed
+     * @throws IllegalArgumentException if timeout is null
+     * @since 1.5
+     */
+    @Blocking
+    default boolean await(@NotNull Duration timeout) {
+        
+        long nanos;
+        try {
+            nanos = timeout.toNanos();
+        } catch (ArithmeticException e) {
+            nanos = Long.MAX_VALUE;
+        }
+        
+        if (getState() != State.PENDING) return true;
+        if (nanos <= 0L) return false;
+        
+        // Bridged once per wait, the callbacks stay registered until the
+        // promise settles
+        CompletableFuture<T> future = toCompletableFuture();
+        long deadline = System.nanoTime() + nanos;
+        boolean interrupted = false;
+        
+        try {
+            while (!future.isDone()) {
+                
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) return false;
+                
+                try {
+                    future.get(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException | TimeoutException ignored) { }
+                
+            }
+            return true;
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        
+    }
+    
+    /**
+     * Waits until the promise is completed and returns its result.
+     *
+     * @return The result of the promise
+     * @throws PromiseRejectionException if the promise was rejected, with the
+     * reason for the rejection as its cause
+     * @since 1.5
+     */
+    @Blocking
+    default T join() {
+        
+        try {
+            return toCompletableFuture().join();
+        } catch (CompletionException e) {
+            throw new PromiseRejectionException(e.getCause());
+        } catch (CancellationException e) {
+            throw new PromiseRejectionException(e);
+        }
+        
+    }
+    
+    /**
+     * Gets the result of the promise without waiting.
+     *
+     * @param valueIfPending The value to return if the promise is pending
+     * @return The result of the promise, or valueIfPending if it is pending
+     * @throws PromiseRejectionException if the promise was rejected, with the
+     * reason for the rejection as its cause
+     * @since 1.5
+     */
+    @NonBlocking
+    default T getNow(T valueIfPending) {
+        
+        // Bridging a pending promise would leave a pair of callbacks behind
+        // on every poll
+        if (getState() == State.PENDING) return valueIfPending;
+        
+        try {
+            return toCompletableFuture().getNow(valueIfPending);
+        } catch (CompletionException e) {
+            throw new PromiseRejectionException(e.getCause());
+        } catch (CancellationException e) {
+            throw new PromiseRejectionException(e);
+        }
+        
+    }
+    
+    /**
+     * Creates a <code>CompletableFuture</code> that is completed the same way
+     * as this promise, by the thread that settles this promise. Completing the
+     * future does not affect this promise.
+     *
+     * @return The newly created future
+     * @since 1.5
+     * @see #fromFuture(CompletionStage)
+     */
+    @NotNull
+    default CompletableFuture<T> toCompletableFuture() {
+        
+        CompletableFuture<T> future = new CompletableFuture<>();
+        
+        then(future::complete)
+                .catchException(future::completeExceptionally);
+        
+        return future;
+        
+    }
+    
+    /**
+     * Runs a callback that was handed to an executor, handing any exception
+     * it throws to the exception handler of the promise's runtime like
+     * callbacks that are run inline. The handler is captured when the
+     * callback is added, since the executor's thread has no runtime scope.
+     *
+     * @param callback The callback to run
+     * @param value The callback's argument
+     * @param handler The exception handler
+     * @param <V> The type of the callback's argument
+     */
+    private static <V> void runCallback(@NotNull Callback<V> callback,
+                                        V value,
+                                        @NotNull Consumer<@NotNull Throwable> handler) {
+        
+        try {
+            callback.run(value);
+        } catch (Exception e) {
+            handler.accept(e);
+        }
+        
+    }
+    
 }
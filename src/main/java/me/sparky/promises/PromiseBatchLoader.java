@@ -0,0 +1,283 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces the keys loaded within a dispatch window into a single call of a
+ * batch function, like a DataLoader. Each {@link #load(Object)} returns a
+ * promise of the value for its key, which is settled from the map the batch
+ * function resolves to. Keys that are loaded more than once in the same
+ * batch share one promise, and keys that are missing from the map resolve to
+ * null.
+ *
+ * A batch is dispatched once the window has passed since its first key was
+ * loaded, once it holds maxBatchSize keys, or when {@link #dispatch()} is
+ * called. The window is waited for on the timer of a {@link PromiseRuntime}
+ * and batch functions are called by its executor. Loading a key never blocks:
+ * keys are added to the current batch with a few atomic operations and the
+ * batch is dispatched by whichever thread finishes adding the last key once
+ * it is closed.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ * @author Sparky
+ * @since 1.5
+ */
+public final class PromiseBatchLoader<K, V> {
+    
+    private static final int CLOSED = 1 << 31;
+    
+    private static final VarHandle CURRENT;
+    private static final VarHandle STATE;
+    private static final VarHandle WRITTEN;
+    private static final VarHandle DISPATCHED;
+    
+    static {
+        
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CURRENT = lookup.findVarHandle(PromiseBatchLoader.class, "current", PromiseBatchLoader.Batch.class);
+            STATE = lookup.findVarHandle(PromiseBatchLoader.Batch.class, "state", int.class);
+            WRITTEN = lookup.findVarHandle(PromiseBatchLoader.Batch.class, "written", int.class);
+            DISPATCHED = lookup.findVarHandle(PromiseBatchLoader.Batch.class, "dispatched", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Function<Set<K>, Promise<Map<K, V>>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final PromiseRuntime runtime;
+    
+    private volatile Batch current = new Batch();
+    
+    /**
+     * Constructs a new <code>PromiseBatchLoader</code> that uses the timer and
+     * executor of the {@link PromiseRuntime#current() current runtime}.
+     *
+     * @param batchFunction Loads the values of a batch of keys
+     * @param window How long to wait for more keys after the first key of a
+     *               batch is loaded
+     * @param maxBatchSize The maximum number of keys in a batch
+     * @throws IllegalArgumentException if batchFunction or window are null,
+     * or maxBatchSize is less than 1
+     * @since 1.5
+     */
+    public PromiseBatchLoader(@NotNull Function<Set<K>, Promise<Map<K, V>>> batchFunction,
+                              @NotNull Duration window,
+                              int maxBatchSize) {
+        
+        this(batchFunction, window, maxBatchSize, PromiseRuntime.current());
+        
+    }
+    
+    /**
+     * Constructs a new <code>PromiseBatchLoader</code> that uses the timer and
+     * executor of the specified runtime.
+     *
+     * @param batchFunction Loads the values of a batch of keys
+     * @param window How long to wait for more keys after the first key of a
+     *               batch is loaded
+     * @param maxBatchSize The maximum number of keys in a batch
+     * @param runtime The runtime
+     * @throws IllegalArgumentException if batchFunction, window or runtime are
+     * null, or maxBatchSize is less than 1
+     * @since 1.5
+     */
+    public PromiseBatchLoader(@NotNull Function<Set<K>, Promise<Map<K, V>>> batchFunction,
+                              @NotNull Duration window,
+                              int maxBatchSize,
+                              @NotNull PromiseRuntime runtime) {
+        
+        if (batchFunction == null) throw new IllegalArgumentException("batchFunction must not be null");
+        if (maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        if (runtime == null) throw new IllegalArgumentException("runtime must not be null");
+        
+        this.batchFunction = batchFunction;
+        this.windowNanos = HashedWheelTimer.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+        this.runtime = runtime;
+        
+    }
+    
+    /**
+     * Adds the key to the current batch and returns a promise of its value.
+     *
+     * @param key The key
+     * @return The promise of the value, shared with the other loads of the
+     * key in the same batch
+     * @throws IllegalArgumentException if key is null
+     * @since 1.5
+     */
+    @NotNull
+    public Promise<V> load(@NotNull K key) {
+        
+        if (key == null) throw new IllegalArgumentException("key must not be null");
+        
+        while (true) {
+            
+            Batch batch = current;
+            
+            SettleablePromise<V> existing = batch.loads.get(key);
+            if (existing != null) return existing;
+            
+            int state = batch.state;
+            if ((state & CLOSED) != 0 || state >= maxBatchSize) {
+                CURRENT.compareAndSet(this, batch, new Batch());
+                continue;
+            }
+            
+            if (!STATE.compareAndSet(batch, state, state + 1)) continue;
+            
+            if (state == 0) batch.timer = runtime.timer().schedule(() -> close(batch), windowNanos, TimeUnit.NANOSECONDS);
+            
+            SettleablePromise<V> promise = new SettleablePromise<>(runtime);
+            SettleablePromise<V> shared = batch.loads.putIfAbsent(key, promise);
+            
+            written(batch);
+            if (state + 1 == maxBatchSize) close(batch);
+            
+            return shared != null ? shared : promise;
+            
+        }
+        
+    }
+    
+    /**
+     * Dispatches the current batch without waiting for the rest of its
+     * window, if any keys have been loaded into it.
+     *
+     * @since 1.5
+     */
+    public void dispatch() {
+        
+        Batch batch = current;
+        if (batch.state != 0) close(batch);
+        
+    }
+    
+    /**
+     * Stops keys being added to the batch, and dispatches it if every key has
+     * been added.
+     */
+    private void close(@NotNull Batch batch) {
+        
+        int state = (int) STATE.getAndBitwiseOr(batch, CLOSED);
+        
+        if ((state & CLOSED) == 0 && (int) WRITTEN.get(batch) == state) dispatch(batch);
+        
+    }
+    
+    /**
+     * Counts a key as added, and dispatches the batch if it has been closed
+     * and this was the last key to be added.
+     */
+    private void written(@NotNull Batch batch) {
+        
+        int written = (int) WRITTEN.getAndAdd(batch, 1) + 1;
+        int state = batch.state;
+        
+        if ((state & CLOSED) != 0 && written == (state & ~CLOSED)) dispatch(batch);
+        
+    }
+    
+    private void dispatch(@NotNull Batch batch) {
+        
+        if (!DISPATCHED.compareAndSet(batch, false, true)) return;
+        
+        CURRENT.compareAndSet(this, batch, new Batch());
+        
+        PromiseTimer.Scheduled timer = batch.timer;
+        if (timer != null) timer.cancel();
+        
+        try {
+            runtime.executor().execute(() -> loadBatch(batch));
+        } catch (RejectedExecutionException e) {
+            batch.reject(e);
+        }
+        
+    }
+    
+    private void loadBatch(@NotNull Batch batch) {
+        
+        Promise<Map<K, V>> values;
+        try {
+            values = batchFunction.apply(Collections.unmodifiableSet(new HashSet<>(batch.loads.keySet())));
+        } catch (Exception e) {
+            batch.reject(e);
+            return;
+        }
+        
+        if (values == null) batch.reject(new NullPointerException("batchFunction returned null"));
+        else batch.subscribe(values);
+        
+    }
+    
+    private final class Batch extends Subscription<Map<K, V>> {
+        
+        private final Map<K, SettleablePromise<V>> loads = new ConcurrentHashMap<>();
+        
+        /**
+         * The number of keys that have been reserved a place in the batch,
+         * with the {@link #CLOSED} bit set once no more keys can be added.
+         */
+        private volatile int state;
+        private volatile int written;
+        private volatile boolean dispatched;
+        @Nullable private volatile PromiseTimer.Scheduled timer;
+        
+        @Override
+        void onResolve(Map<K, V> result) {
+            
+            if (result == null) {
+                reject(new NullPointerException("batchFunction resolved to null"));
+                return;
+            }
+            
+            loads.forEach((key, promise) -> promise.tryResolve(result.get(key)));
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { reject(reason); }
+        
+        private void reject(@NotNull Throwable reason) {
+            
+            loads.values().forEach((promise) -> promise.tryReject(reason));
+            
+        }
+        
+    }
+    
+}
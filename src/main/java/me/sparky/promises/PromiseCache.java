@@ -0,0 +1,515 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A cache of promises that loads each key once at a time. Callers that get a
+ * key while it is loading share the same promise, promises that are rejected
+ * are removed from the cache so the next get loads the key again, and
+ * resolved values can be expired or refreshed a fixed time after they are
+ * written.
+ *
+ * Once the cache holds more than maximumSize entries the least recently used
+ * ones are evicted, approximated with the CLOCK algorithm: new entries and
+ * hits mark their entry as used, and eviction sweeps the entries, removing
+ * the ones that were not used since the previous sweep. Hits only write a
+ * flag and never contend on a shared list, and only one thread evicts at a
+ * time. The sweep skips the entry whose insert triggered it and entries that
+ * are still loading, so that callers sharing a load keep sharing it, which
+ * lets the cache stay above maximumSize while the other entries load.
+ *
+ * Expired values are removed when they are next got. A value that is due to
+ * be refreshed is still returned while the key is loaded again in the
+ * background, and is kept if the refresh is rejected.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ * @author Sparky
+ * @since 1.5
+ */
+public final class PromiseCache<K, V> {
+    
+    private static final VarHandle SIZE;
+    private static final VarHandle EVICTING;
+    private static final VarHandle REFRESHING;
+    
+    static {
+        
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            SIZE = lookup.findVarHandle(PromiseCache.class, "size", int.class);
+            EVICTING = lookup.findVarHandle(PromiseCache.class, "evicting", boolean.class);
+            REFRESHING = lookup.findVarHandle(PromiseCache.Entry.class, "refreshing", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Function<K, Promise<V>> loader;
+    private final int maximumSize;
+    private final long expireNanos;
+    private final long refreshNanos;
+    
+    private final ConcurrentHashMap<K, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    private volatile int size;
+    private volatile boolean evicting;
+    
+    // Only accessed by the thread that is evicting
+    @Nullable private Iterator<Entry> hand;
+    
+    /**
+     * Constructs a new <code>PromiseCache</code> whose values do not expire.
+     *
+     * @param loader Loads the value of a key
+     * @param maximumSize The maximum number of entries
+     * @throws IllegalArgumentException if loader is null or maximumSize is
+     * less than 1
+     * @since 1.5
+     */
+    public PromiseCache(@NotNull Function<K, Promise<V>> loader, int maximumSize) {
+        
+        this(loader, maximumSize, null, null);
+        
+    }
+    
+    /**
+     * Constructs a new <code>PromiseCache</code>.
+     *
+     * @param loader Loads the value of a key
+     * @param maximumSize The maximum number of entries
+     * @param expireAfterWrite How long a value is kept after it is loaded, or
+     *                         null to keep it until it is evicted
+     * @param refreshAfterWrite How long after a value is loaded it is loaded
+     *                          again in the background when it is got, or
+     *                          null to never refresh it
+     * @throws IllegalArgumentException if loader is null or maximumSize is
+     * less than 1
+     * @since 1.5
+     */
+    public PromiseCache(@NotNull Function<K, Promise<V>> loader,
+                        int maximumSize,
+                        @Nullable Duration expireAfterWrite,
+                        @Nullable Duration refreshAfterWrite) {
+        
+        if (loader == null) throw new IllegalArgumentException("loader must not be null");
+        if (maximumSize < 1) throw new IllegalArgumentException("maximumSize must be at least 1");
+        
+        this.loader = loader;
+        this.maximumSize = maximumSize;
+        this.expireNanos = expireAfterWrite == null ? Long.MAX_VALUE : HashedWheelTimer.toNanos(expireAfterWrite);
+        this.refreshNanos = refreshAfterWrite == null ? Long.MAX_VALUE : HashedWheelTimer.toNanos(refreshAfterWrite);
+        
+    }
+    
+    /**
+     * Gets the promise of the value of the key, loading it if it is not
+     * cached. Concurrent callers for a key that is loading share its promise.
+     *
+     * @param key The key
+     * @return The promise of the value
+     * @throws IllegalArgumentException if key is null
+     * @since 1.5
+     */
+    @NotNull
+    public Promise<V> get(@NotNull K key) {
+        
+        if (key == null) throw new IllegalArgumentException("key must not be null");
+        
+        while (true) {
+            
+            Entry entry = entries.get(key);
+            if (entry != null && (entry = fresh(entry)) != null) {
+                hits.increment();
+                entry.referenced = true;
+                return entry.promise;
+            }
+            
+            Entry created = new Entry(key);
+            Entry existing = entries.putIfAbsent(key, created);
+            if (existing != null) continue;
+            
+            misses.increment();
+            SIZE.getAndAdd(this, 1);
+            
+            created.load();
+            if (size > maximumSize) evict(created);
+            
+            return created.promise;
+            
+        }
+        
+    }
+    
+    /**
+     * Gets the promise of the value of the key if it is cached, without
+     * loading it.
+     *
+     * @param key The key
+     * @return The promise of the value, or null if it is not cached
+     * @throws IllegalArgumentException if key is null
+     * @since 1.5
+     */
+    @Nullable
+    public Promise<V> getIfPresent(@NotNull K key) {
+        
+        if (key == null) throw new IllegalArgumentException("key must not be null");
+        
+        Entry entry = entries.get(key);
+        if (entry == null || (entry = fresh(entry)) == null) {
+            misses.increment();
+            return null;
+        }
+        
+        hits.increment();
+        entry.referenced = true;
+        return entry.promise;
+        
+    }
+    
+    /**
+     * Removes the key from the cache. Callers already holding its promise are
+     * still settled when it loads.
+     *
+     * @param key The key
+     * @throws IllegalArgumentException if key is null
+     * @since 1.5
+     */
+    public void invalidate(@NotNull K key) {
+        
+        if (key == null) throw new IllegalArgumentException("key must not be null");
+        
+        Entry entry = entries.get(key);
+        if (entry != null) remove(entry);
+        
+    }
+    
+    /**
+     * Removes every key from the cache.
+     *
+     * @since 1.5
+     */
+    public void invalidateAll() {
+        
+        for (Entry entry : entries.values())
+            remove(entry);
+        
+    }
+    
+    /**
+     * Gets the number of entries in the cache, including the ones that are
+     * loading.
+     *
+     * @return The number of entries
+     * @since 1.5
+     */
+    public int size() { return size; }
+    
+    /**
+     * Gets a snapshot of the statistics of the cache.
+     *
+     * @return The statistics
+     * @since 1.5
+     */
+    @NotNull
+    public Stats stats() {
+        
+        return new Stats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(), evictions.sum());
+        
+    }
+    
+    /**
+     * Removes the entry if it has expired and refreshes it if it is due.
+     *
+     * @return The entry, or null if it has expired
+     */
+    @Nullable
+    private Entry fresh(@NotNull Entry entry) {
+        
+        if (!entry.written) return entry;
+        
+        long age = System.nanoTime() - entry.writtenAt;
+        
+        if (age >= expireNanos) {
+            remove(entry);
+            return null;
+        }
+        
+        if (age >= refreshNanos && REFRESHING.compareAndSet(entry, false, true)) entry.refresh();
+        
+        return entry;
+        
+    }
+    
+    private boolean remove(@NotNull Entry entry) {
+        
+        if (!entries.remove(entry.key, entry)) return false;
+        
+        SIZE.getAndAdd(this, -1);
+        return true;
+        
+    }
+    
+    /**
+     * Sweeps the entries until the cache is back within its maximum size.
+     * Entries that were used since the hand last passed them are given a
+     * second chance. Only one thread evicts at a time, and the sweep is
+     * retried if another thread added an entry while it was finishing. The
+     * sweep gives up once it has passed every entry without being able to
+     * evict one, since the rest are loading.
+     *
+     * @param inserted The entry whose insert triggered the sweep
+     */
+    private void evict(@NotNull Entry inserted) {
+        
+        boolean stuck = false;
+        
+        while (!stuck && size > maximumSize && EVICTING.compareAndSet(this, false, true)) {
+            
+            try {
+                int skipped = 0;
+                while (size > maximumSize) {
+                    if (skipped > size) {
+                        stuck = true;
+                        break;
+                    }
+                    
+                    if (hand == null || !hand.hasNext()) hand = entries.values().iterator();
+                    if (!hand.hasNext()) break;
+                    
+                    Entry entry = hand.next();
+                    if (entry.referenced) {
+                        entry.referenced = false;
+                        skipped = 0;
+                    } else if (entry == inserted || entry.promise.getState() == Promise.State.PENDING) {
+                        skipped++;
+                    } else if (remove(entry)) {
+                        evictions.increment();
+                        skipped = 0;
+                    }
+                }
+            } finally {
+                evicting = false;
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Loads the key with the loader, turning exceptions it throws into a
+     * rejected promise.
+     */
+    @NotNull
+    private Promise<V> loadValue(@NotNull K key) {
+        
+        try {
+            Promise<V> promise = loader.apply(key);
+            return promise != null ? promise : Promise.reject(new NullPointerException("loader returned null"));
+        } catch (Exception e) {
+            return Promise.reject(e);
+        }
+        
+    }
+    
+    private final class Entry {
+        
+        private final K key;
+        private volatile Promise<V> promise;
+        private volatile long writtenAt;
+        private volatile boolean written;
+        private volatile boolean referenced;
+        private volatile boolean refreshing;
+        
+        private Entry(@NotNull K key) {
+            
+            this.key = key;
+            this.promise = new SettleablePromise<>();
+            this.referenced = true;
+            
+        }
+        
+        private void load() {
+            
+            SettleablePromise<V> promise = (SettleablePromise<V>) this.promise;
+            
+            promise.settleWith(loadValue(key));
+            new Subscription<V>() {
+                
+                @Override
+                void onResolve(V result) {
+                    
+                    loadSuccesses.increment();
+                    written();
+                    
+                }
+                
+                @Override
+                void onReject(@NotNull Throwable reason) {
+                    
+                    loadFailures.increment();
+                    remove(Entry.this);
+                    
+                }
+                
+            }.subscribe(promise);
+            
+        }
+        
+        private void refresh() {
+            
+            new Subscription<V>() {
+                
+                @Override
+                void onResolve(V result) {
+                    
+                    loadSuccesses.increment();
+                    promise = Promise.resolve(result);
+                    written();
+                    refreshing = false;
+                    
+                }
+                
+                @Override
+                void onReject(@NotNull Throwable reason) {
+                    
+                    loadFailures.increment();
+                    refreshing = false;
+                    
+                }
+                
+            }.subscribe(loadValue(key));
+            
+        }
+        
+        private void written() {
+            
+            writtenAt = System.nanoTime();
+            written = true;
+            
+        }
+        
+    }
+    
+    /**
+     * A snapshot of the statistics of a {@link PromiseCache}.
+     *
+     * @author Sparky
+     * @since 1.5
+     */
+    public static final class Stats {
+        
+        private final long hitCount;
+        private final long missCount;
+        private final long loadSuccessCount;
+        private final long loadFailureCount;
+        private final long evictionCount;
+        
+        private Stats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long evictionCount) {
+            
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadSuccessCount = loadSuccessCount;
+            this.loadFailureCount = loadFailureCount;
+            this.evictionCount = evictionCount;
+            
+        }
+        
+        /**
+         * Gets the number of gets that found the key cached, including the
+         * ones that shared a promise that was still loading.
+         *
+         * @return The number of hits
+         * @since 1.5
+         */
+        public long hitCount() { return hitCount; }
+        
+        /**
+         * Gets the number of gets that did not find the key cached.
+         *
+         * @return The number of misses
+         * @since 1.5
+         */
+        public long missCount() { return missCount; }
+        
+        /**
+         * Gets the ratio of gets that found the key cached.
+         *
+         * @return The hit rate, or 1 if there were no gets
+         * @since 1.5
+         */
+        public double hitRate() {
+            
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+            
+        }
+        
+        /**
+         * Gets the number of loads and refreshes that were resolved.
+         *
+         * @return The number of successful loads
+         * @since 1.5
+         */
+        public long loadSuccessCount() { return loadSuccessCount; }
+        
+        /**
+         * Gets the number of loads and refreshes that were rejected.
+         *
+         * @return The number of failed loads
+         * @since 1.5
+         */
+        public long loadFailureCount() { return loadFailureCount; }
+        
+        /**
+         * Gets the number of entries that were evicted to keep the cache
+         * within its maximum size.
+         *
+         * @return The number of evictions
+         * @since 1.5
+         */
+        public long evictionCount() { return evictionCount; }
+        
+        @Override
+        public String toString() {
+            
+            return "Stats{hitCount=" + hitCount + ", missCount=" + missCount
+                    + ", loadSuccessCount=" + loadSuccessCount + ", loadFailureCount=" + loadFailureCount
+                    + ", evictionCount=" + evictionCount + "}";
+            
+        }
+        
+    }
+    
+}
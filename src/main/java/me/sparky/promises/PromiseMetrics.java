@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Hooks that are called when promises time out, are retried or are
+ * cancelled, for example to count them. The hooks are called on the thread
+ * that causes the event, so they should be fast and must not block. Every
+ * hook does nothing by default.
+ *
+ * @author Sparky
+ * @since 1.5
+ * @see PromiseRuntime#metrics()
+ */
+public interface PromiseMetrics {
+    
+    /**
+     * Metrics that ignore every event.
+     *
+     * @since 1.5
+     */
+    PromiseMetrics NONE = new PromiseMetrics() { };
+    
+    /**
+     * Called when a promise is rejected because its timeout elapsed.
+     *
+     * @since 1.5
+     * @see Promise#timeout(java.time.Duration)
+     */
+    default void onTimeout() { }
+    
+    /**
+     * Called when a failed attempt is going to be retried.
+     *
+     * @param attempt The number of the failed attempt, starting at 1
+     * @param reason The reason the attempt failed
+     * @since 1.5
+     * @see Promise#retry(java.util.function.Supplier, RetryPolicy)
+     */
+    default void onRetry(int attempt, @NotNull Throwable reason) { }
+    
+    /**
+     * Called when a promise is cancelled, including promises that are
+     * cancelled because a promise that depends on them was cancelled.
+     *
+     * @since 1.5
+     * @see Promise#cancel()
+     */
+    default void onCancel() { }
+    
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Flow.Publisher} of the results of a sequence of promises, in the
+ * order of the sequence. Each subscriber pulls its own promises from the
+ * sequence, and only as its demand allows: a promise is only taken from the
+ * sequence once the subscriber has requested its result, and at most
+ * maxConcurrency promises are taken ahead of the results that have been
+ * published. A lazy sequence therefore only starts work as it is requested,
+ * and a slow subscriber holds a bounded number of promises.
+ *
+ * The first rejected promise is published as an error, after which the
+ * promises that were taken ahead are cancelled. Cancelling the subscription
+ * cancels them too. Promises that are resolved with null are published as a
+ * {@link NullPointerException} error, since a publisher cannot publish null.
+ *
+ * @param <T> The type of the promises
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#publisher(Iterable, int)
+ */
+public final class PromisePublisher<T> implements Flow.Publisher<T> {
+    
+    private final Supplier<Iterator<? extends Promise<T>>> source;
+    private final int maxConcurrency;
+    
+    private PromisePublisher(@NotNull Supplier<Iterator<? extends Promise<T>>> source, int maxConcurrency) {
+        
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        
+        this.source = source;
+        this.maxConcurrency = maxConcurrency;
+        
+    }
+    
+    /**
+     * Creates a publisher of the results of the promises of an iterable. Each
+     * subscriber iterates the iterable again.
+     *
+     * @param promises The promises
+     * @param maxConcurrency The maximum number of promises to take ahead of
+     *                       the published results
+     * @param <T> The type of the promises
+     * @return The newly created publisher
+     * @throws IllegalArgumentException if promises is null or maxConcurrency
+     * is less than 1
+     * @since 1.5
+     */
+    @NotNull
+    public static <T> PromisePublisher<T> from(@NotNull Iterable<? extends Promise<T>> promises, int maxConcurrency) {
+        
+        if (promises == null) throw new IllegalArgumentException("promises must not be null");
+        
+        return new PromisePublisher<>(promises::iterator, maxConcurrency);
+        
+    }
+    
+    /**
+     * Creates a publisher of the results of the promises returned by a
+     * generator. The generator is called once for every promise that is
+     * taken, by every subscriber, until it returns null.
+     *
+     * @param generator Returns the next promise, or null once there are no
+     *                  more promises
+     * @param maxConcurrency The maximum number of promises to take ahead of
+     *                       the published results
+     * @param <T> The type of the promises
+     * @return The newly created publisher
+     * @throws IllegalArgumentException if generator is null or
+     * maxConcurrency is less than 1
+     * @since 1.5
+     */
+    @NotNull
+    public static <T> PromisePublisher<T> generate(@NotNull Supplier<@Nullable Promise<T>> generator,
+                                                   int maxConcurrency) {
+        
+        if (generator == null) throw new IllegalArgumentException("generator must not be null");
+        
+        return new PromisePublisher<>(() -> new Generated<>(generator), maxConcurrency);
+        
+    }
+    
+    /**
+     * Subscribes the subscriber to the results of the promises.
+     *
+     * @param subscriber The subscriber
+     * @throws NullPointerException if subscriber is null, as required by
+     * {@link Flow.Publisher#subscribe(Flow.Subscriber)}
+     * @since 1.5
+     */
+    @Override
+    public void subscribe(@NotNull Flow.Subscriber<? super T> subscriber) {
+        
+        Objects.requireNonNull(subscriber, "subscriber must not be null");
+        
+        PublisherSubscription<T> subscription = new PublisherSubscription<>(subscriber, source, maxConcurrency);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+        
+    }
+    
+    private static final class PublisherSubscription<T> implements Flow.Subscription {
+        
+        private static final VarHandle REQUESTED;
+        private static final VarHandle WIP;
+        
+        static {
+            
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                REQUESTED = lookup.findVarHandle(PublisherSubscription.class, "requested", long.class);
+                WIP = lookup.findVarHandle(PublisherSubscription.class, "wip", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+            
+        }
+        
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Supplier<Iterator<? extends Promise<T>>> source;
+        private final int maxConcurrency;
+        
+        // Only accessed by the thread that is draining
+        private final ArrayDeque<Input> window = new ArrayDeque<>();
+        @Nullable private Iterator<? extends Promise<T>> iterator;
+        private long emitted;
+        private boolean exhausted;
+        private boolean done;
+        
+        private volatile long requested;
+        private volatile int wip;
+        private volatile boolean cancelled;
+        @Nullable private volatile Throwable badRequest;
+        
+        private PublisherSubscription(@NotNull Flow.Subscriber<? super T> subscriber,
+                                      @NotNull Supplier<Iterator<? extends Promise<T>>> source,
+                                      int maxConcurrency) {
+            
+            this.subscriber = subscriber;
+            this.source = source;
+            this.maxConcurrency = maxConcurrency;
+            
+        }
+        
+        @Override
+        public void request(long n) {
+            
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("request must be positive, was " + n);
+            } else {
+                long current;
+                do {
+                    current = requested;
+                } while (!REQUESTED.compareAndSet(this, current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            
+            drain();
+            
+        }
+        
+        @Override
+        public void cancel() {
+            
+            cancelled = true;
+            drain();
+            
+        }
+        
+        /**
+         * Publishes the results at the head of the window that have settled
+         * and takes more promises while the demand allows. Only one thread
+         * drains at a time, the calls that arrive meanwhile make it loop
+         * again, so the subscriber is never called concurrently.
+         */
+        private void drain() {
+            
+            if ((int) WIP.getAndAdd(this, 1) != 0) return;
+            
+            int missed = 1;
+            do {
+                
+                if (!done) {
+                    Throwable badRequest = this.badRequest;
+                    if (cancelled) terminate();
+                    else if (badRequest != null) error(badRequest);
+                    else emit();
+                }
+                
+                missed = (int) WIP.getAndAdd(this, -missed) - missed;
+                
+            } while (missed != 0);
+            
+        }
+        
+        private void emit() {
+            
+            long requested = this.requested;
+            
+            while (emitted < requested && !window.isEmpty() && window.peek().settled) {
+                Input head = window.poll();
+                if (head.reason != null) {
+                    error(head.reason);
+                    return;
+                }
+                if (head.result == null) {
+                    error(new NullPointerException("Promise was resolved with null"));
+                    return;
+                }
+                emitted++;
+                try {
+                    subscriber.onNext(head.result);
+                } catch (Exception e) {
+                    terminate();
+                    PromiseRuntime.handleException(e);
+                    return;
+                }
+                if (cancelled) return;
+            }
+            
+            try {
+                if (iterator == null) iterator = source.get();
+                while (!exhausted && window.size() < maxConcurrency && emitted + window.size() < requested) {
+                    if (!iterator.hasNext()) {
+                        exhausted = true;
+                    } else {
+                        Promise<T> promise = iterator.next();
+                        if (promise == null) throw new NullPointerException("promises must not contain null");
+                        Input input = new Input();
+                        window.add(input);
+                        input.subscribe(promise);
+                    }
+                }
+            } catch (Exception e) {
+                error(e);
+                return;
+            }
+            
+            if (exhausted && window.isEmpty()) {
+                done = true;
+                subscriber.onComplete();
+            }
+            
+        }
+        
+        private void error(@NotNull Throwable reason) {
+            
+            terminate();
+            subscriber.onError(reason);
+            
+        }
+        
+        private void terminate() {
+            
+            done = true;
+            
+            for (Input input : window)
+                if (!input.settled) input.cancelSource();
+            
+            window.clear();
+            iterator = null;
+            
+        }
+        
+        private final class Input extends Subscription<T> {
+            
+            @Nullable private T result;
+            @Nullable private Throwable reason;
+            private volatile boolean settled;
+            
+            @Override
+            void onResolve(T result) {
+                
+                this.result = result;
+                settled = true;
+                drain();
+                
+            }
+            
+            @Override
+            void onReject(@NotNull Throwable reason) {
+                
+                this.reason = reason;
+                settled = true;
+                drain();
+                
+            }
+            
+        }
+        
+    }
+    
+    private static final class Generated<T> implements Iterator<Promise<T>> {
+        
+        private final Supplier<Promise<T>> generator;
+        @Nullable private Promise<T> next;
+        private boolean exhausted;
+        
+        private Generated(@NotNull Supplier<Promise<T>> generator) { this.generator = generator; }
+        
+        @Override
+        public boolean hasNext() {
+            
+            if (next == null && !exhausted) {
+                next = generator.get();
+                exhausted = next == null;
+            }
+            
+            return next != null;
+            
+        }
+        
+        @Override
+        public Promise<T> next() {
+            
+            if (!hasNext()) throw new NoSuchElementException();
+            
+            Promise<T> promise = next;
+            next = null;
+            return promise;
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Holds what promises use to run: the default executor for executors and
+ * asynchronous callbacks, the timer for timeouts, delays and retries, the
+ * handler for exceptions thrown by callbacks and the metrics hooks.
+ *
+ * Promises use the {@link #current() current} runtime when they are created,
+ * which is the runtime of the enclosing {@link #run(Runnable) scope} on the
+ * current thread or else the {@link #global() global} runtime. Promises that
+ * take a runtime in their constructor use that runtime instead.
+ *
+ * Runtimes are immutable, each <code>with</code> method returns a new
+ * runtime.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+public final class PromiseRuntime {
+    
+    private static final VarHandle GLOBAL;
+    private static final ThreadLocal<PromiseRuntime> SCOPED = new ThreadLocal<>();
+    
+    static {
+        
+        try {
+            GLOBAL = MethodHandles.lookup().findStaticVarHandle(PromiseRuntime.class, "global", PromiseRuntime.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    @Nullable private static volatile PromiseRuntime global;
+    
+    private final Executor executor;
+    private final PromiseTimer timer;
+    private final Consumer<@NotNull Throwable> exceptionHandler;
+    private final PromiseMetrics metrics;
+    
+    private PromiseRuntime(@NotNull Executor executor,
+                           @NotNull PromiseTimer timer,
+                           @NotNull Consumer<@NotNull Throwable> exceptionHandler,
+                           @NotNull PromiseMetrics metrics) {
+        
+        this.executor = executor;
+        this.timer = timer;
+        this.exceptionHandler = exceptionHandler;
+        this.metrics = metrics;
+        
+    }
+    
+    /**
+     * Gets the default runtime, which uses the
+     * {@link SettleablePromise#threadPool default thread pool}, a shared
+     * hashed-wheel timer with a tick of 10 milliseconds, prints exceptions
+     * thrown by callbacks and ignores metrics. The timer's thread is only
+     * started once something is scheduled.
+     *
+     * @return The default runtime
+     * @since 1.5
+     */
+    @NotNull
+    public static PromiseRuntime defaults() { return Defaults.INSTANCE; }
+    
+    /**
+     * Gets the global runtime, which is the default runtime until another
+     * runtime is set.
+     *
+     * @return The global runtime
+     * @since 1.5
+     */
+    @NotNull
+    public static PromiseRuntime global() {
+        
+        PromiseRuntime global = PromiseRuntime.global;
+        if (global != null) return global;
+        
+        GLOBAL.compareAndSet(null, defaults());
+        return PromiseRuntime.global;
+        
+    }
+    
+    /**
+     * Sets the global runtime.
+     *
+     * @param runtime The global runtime
+     * @throws IllegalArgumentException if runtime is null
+     * @since 1.5
+     */
+    public static void setGlobal(@NotNull PromiseRuntime runtime) {
+        
+        if (runtime == null) throw new IllegalArgumentException("runtime must not be null");
+        
+        global = runtime;
+        
+    }
+    
+    /**
+     * Gets the runtime of the enclosing scope on the current thread, or the
+     * global runtime if there is no enclosing scope.
+     *
+     * @return The current runtime
+     * @since 1.5
+     */
+    @NotNull
+    public static PromiseRuntime current() {
+        
+        PromiseRuntime scoped = SCOPED.get();
+        return scoped != null ? scoped : global();
+        
+    }
+    
+    /**
+     * Runs the specified action in a scope where this is the
+     * {@link #current() current} runtime of the current thread. The scope does
+     * not extend to callbacks that are run later or on other threads.
+     *
+     * @param action The action
+     * @throws IllegalArgumentException if action is null
+     * @since 1.5
+     */
+    public void run(@NotNull Runnable action) {
+        
+        call(() -> {
+            action.run();
+            return null;
+        });
+        
+    }
+    
+    /**
+     * Calls the specified action in a scope where this is the
+     * {@link #current() current} runtime of the current thread, for example
+     * to create promises with this runtime. The scope does not extend to
+     * callbacks that are run later or on other threads.
+     *
+     * @param action The action
+     * @param <T> The type of the action's result
+     * @return The action's result
+     * @throws IllegalArgumentException if action is null
+     * @since 1.5
+     */
+    public <T> T call(@NotNull Supplier<T> action) {
+        
+        PromiseRuntime outer = SCOPED.get();
+        SCOPED.set(this);
+        
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) SCOPED.remove();
+            else SCOPED.set(outer);
+        }
+        
+    }
+    
+    /**
+     * Gets the default executor for executors and asynchronous callbacks.
+     *
+     * @return The default executor
+     * @since 1.5
+     */
+    @NotNull
+    public Executor executor() { return executor; }
+    
+    /**
+     * Gets the timer for timeouts, delays and retries.
+     *
+     * @return The timer
+     * @since 1.5
+     */
+    @NotNull
+    public PromiseTimer timer() { return timer; }
+    
+    /**
+     * Gets the handler for exceptions thrown by callbacks.
+     *
+     * @return The exception handler
+     * @since 1.5
+     */
+    @NotNull
+    public Consumer<@NotNull Throwable> exceptionHandler() { return exceptionHandler; }
+    
+    /**
+     * Gets the metrics hooks.
+     *
+     * @return The metrics hooks
+     * @since 1.5
+     */
+    @NotNull
+    public PromiseMetrics metrics() { return metrics; }
+    
+    /**
+     * Creates a copy of this runtime with the specified default executor.
+     *
+     * @param executor The default executor
+     * @return The newly created runtime
+     * @throws IllegalArgumentException if executor is null
+     * @since 1.5
+     */
+    @NotNull
+    public PromiseRuntime withExecutor(@NotNull Executor executor) {
+        
+        if (executor == null) throw new IllegalArgumentException("executor must not be null");
+        
+        return new PromiseRuntime(executor, timer, exceptionHandler, metrics);
+        
+    }
+    
+    /**
+     * Creates a copy of this runtime with the specified timer.
+     *
+     * @param timer The timer
+     * @return The newly created runtime
+     * @throws IllegalArgumentException if timer is null
+     * @since 1.5
+     */
+    @NotNull
+    public PromiseRuntime withTimer(@NotNull PromiseTimer timer) {
+        
+        if (timer == null) throw new IllegalArgumentException("timer must not be null");
+        
+        return new PromiseRuntime(executor, timer, exceptionHandler, metrics);
+        
+    }
+    
+    /**
+     * Creates a copy of this runtime with the specified handler for
+     * exceptions thrown by callbacks.
+     *
+     * @param exceptionHandler The exception handler
+     * @return The newly created runtime
+     * @throws IllegalArgumentException if exceptionHandler is null
+     * @since 1.5
+     */
+    @NotNull
+    public PromiseRuntime withExceptionHandler(@NotNull Consumer<@NotNull Throwable> exceptionHandler) {
+        
+        if (exceptionHandler == null) throw new IllegalArgumentException("exceptionHandler must not be null");
+        
+        return new PromiseRuntime(executor, timer, exceptionHandler, metrics);
+        
+    }
+    
+    /**
+     * Creates a copy of this runtime with the specified metrics hooks.
+     *
+     * @param metrics The metrics hooks
+     * @return The newly created runtime
+     * @throws IllegalArgumentException if metrics is null
+     * @since 1.5
+     */
+    @NotNull
+    public PromiseRuntime withMetrics(@NotNull PromiseMetrics metrics) {
+        
+        if (metrics == null) throw new IllegalArgumentException("metrics must not be null");
+        
+        return new PromiseRuntime(executor, timer, exceptionHandler, metrics);
+        
+    }
+    
+    /**
+     * Runs the specified task on the default executor, or on the current
+     * thread if the executor rejects it. Used to move callbacks off the timer
+     * thread, which only claims the promises that it settles.
+     *
+     * @param task The task
+     */
+    void execute(@NotNull Runnable task) {
+        
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+        
+    }
+    
+    /**
+     * Gets the runtime that the callbacks of the specified promise use: the
+     * runtime the promise was created with for promises of this library, or
+     * else the current runtime.
+     *
+     * @param promise The promise
+     * @return The runtime of the promise
+     */
+    @NotNull
+    static PromiseRuntime of(@NotNull Promise<?> promise) {
+        
+        return promise instanceof AbstractPromise ? ((AbstractPromise<?>) promise).runtime() : current();
+        
+    }
+    
+    /**
+     * Passes an exception thrown by a callback to the exception handler of
+     * the current runtime. Only used for callbacks that run on the thread
+     * that registered them, callbacks that run later capture the handler when
+     * they are registered.
+     *
+     * @param exception The exception
+     */
+    static void handleException(@NotNull Throwable exception) { current().exceptionHandler.accept(exception); }
+    
+    private static final class Defaults {
+        
+        private static final PromiseRuntime INSTANCE = new PromiseRuntime(
+                SettleablePromise.threadPool,
+                new HashedWheelTimer(Duration.ofMillis(10), 512, "promise-timer"),
+                Throwable::printStackTrace,
+                PromiseMetrics.NONE
+        );
+        
+    }
+    
+}
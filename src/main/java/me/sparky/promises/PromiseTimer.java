@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks after a delay for timeouts, delayed promises and retries. Tasks
+ * should be short, since a timer may run them on a single thread.
+ *
+ * @author Sparky
+ * @since 1.5
+ * @see PromiseRuntime#timer()
+ */
+public interface PromiseTimer {
+    
+    /**
+     * Creates a hashed-wheel timer, which expires the tasks of one tick at a
+     * time on a single daemon thread that is started when the first task is
+     * scheduled. Scheduling and cancelling tasks never contend on a lock.
+     *
+     * @param tick The duration of a tick, the precision of the timer
+     * @param ticksPerWheel The number of ticks in a rotation of the wheel,
+     *                      rounded up to a power of two
+     * @param threadName The name of the timer's thread
+     * @return The newly created timer
+     * @throws IllegalArgumentException if tick or threadName are null
+     * @since 1.5
+     */
+    @NotNull
+    static PromiseTimer hashedWheel(@NotNull Duration tick, int ticksPerWheel, @NotNull String threadName) {
+        
+        return new HashedWheelTimer(tick, ticksPerWheel, threadName);
+        
+    }
+    
+    /**
+     * Schedules a task to run after the specified delay. Delays that are not
+     * positive run the task as soon as possible.
+     *
+     * @param task The task
+     * @param delay The delay
+     * @param unit The unit of the delay
+     * @return The handle to cancel the task with
+     * @throws IllegalArgumentException if task or unit are null
+     * @since 1.5
+     */
+    @NotNull
+    Scheduled schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit);
+    
+    /**
+     * A task scheduled on a timer.
+     *
+     * @since 1.5
+     */
+    interface Scheduled {
+        
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return Whether the task was cancelled by this call
+         * @since 1.5
+         */
+        boolean cancel();
+        
+    }
+    
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Represents a promise that is settled (completed) the same way as the first
+ * of its input promises to settle, whether it is resolved or rejected. If
+ * there are no input promises it is never settled.
+ *
+ * Once this promise is settled it unsubscribes from the inputs that are still
+ * pending, so slow inputs do not keep it reachable.
+ *
+ * @param <T> The type of the promises
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#race(Collection)
+ * @see Promise#race(Promise[])
+ */
+public class RacePromise<T> extends AbstractCompletablePromise<T> {
+    
+    private final Subscription<?>[] inputs;
+    
+    /**
+     * The number of inputs that have been subscribed to. Written after each
+     * subscription so that the winner sees every input it has to unsubscribe
+     * from, unless the constructor sees the winner and unsubscribes itself.
+     */
+    private volatile int subscribed;
+    
+    /**
+     * Constructs a new <code>RacePromise</code> with specified promises.
+     *
+     * @param promises The promises
+     * @throws IllegalArgumentException if promises is null
+     * @since 1.5
+     */
+    public RacePromise(@NotNull Collection<@NotNull Promise<T>> promises) {
+        
+        this.inputs = new Subscription<?>[promises.size()];
+        
+        int i = 0;
+        for (Promise<T> promise : promises) {
+            if (getState() != State.PENDING) break;
+            Input input = new Input();
+            inputs[i++] = input;
+            input.subscribe(promise);
+            subscribed = i;
+        }
+        
+        if (getState() != State.PENDING) unsubscribeAll();
+        
+    }
+    
+    /**
+     * Unsubscribes from the input promises and cancels the ones that nothing
+     * else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        for (int i = 0, n = subscribed; i < n; i++)
+            inputs[i].cancelSource();
+        
+    }
+    
+    private void unsubscribeAll() {
+        
+        for (int i = 0, n = subscribed; i < n; i++)
+            inputs[i].unsubscribe();
+        
+    }
+    
+    private final class Input extends Subscription<T> {
+        
+        @Override
+        void onResolve(T result) {
+            
+            if (tryResolve(result)) unsubscribeAll();
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) {
+            
+            if (tryReject(reason)) unsubscribeAll();
+            
+        }
+        
+    }
+    
+}
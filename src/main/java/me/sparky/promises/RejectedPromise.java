@@ -20,9 +20,15 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NonBlocking;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
 /**
  * Represents a rejected promise. This promise is more efficient than using
- * {@link SettleablePromise} and rejecting it.
+ * {@link SettleablePromise} and rejecting it. Transforming it returns the
+ * promise itself, since it is rejected the same way.
  *
  * @param <T> The type of the promise
  * @author Sparky
@@ -68,7 +74,7 @@ public class RejectedPromise<T> implements Promise<T>{
         try {
             reject.run(reason);
         } catch (Exception e) {
-            e.printStackTrace();
+            PromiseRuntime.handleException(e);
         }
         return this;
         
@@ -86,7 +92,7 @@ public class RejectedPromise<T> implements Promise<T>{
     
     @Override
     @NotNull
-    public State getState() { return State.REJECTED; }
+    public State getState() { return reason instanceof CancellationException ? State.CANCELLED : State.REJECTED; }
     
     @Override
     @NotNull
@@ -117,8 +123,41 @@ public class RejectedPromise<T> implements Promise<T>{
     
     }
     
+    @Override
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <R> Promise<R> transform(@NotNull Function<T, R> transform) { return (Promise<R>) this; }
+    
+    @Override
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <R> Promise<R> flatMap(@NotNull Function<T, Promise<R>> flatMap) { return (Promise<R>) this; }
+    
+    /**
+     * Gets the reason for the rejection.
+     *
+     * @return The reason
+     */
+    @NotNull
+    Throwable reason() { return reason; }
+    
     @Override
     @NonBlocking
     public void await() { }
     
+    @Override
+    @NonBlocking
+    public boolean await(@NotNull Duration timeout) { return true; }
+    
+    @Override
+    @NonBlocking
+    public T join() { throw new PromiseRejectionException(reason); }
+    
+    @Override
+    public T getNow(T valueIfPending) { throw new PromiseRejectionException(reason); }
+    
+    @Override
+    @NotNull
+    public CompletableFuture<T> toCompletableFuture() { return CompletableFuture.failedFuture(reason); }
+    
 }
@@ -19,14 +19,22 @@ package me.sparky.promises;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NonBlocking;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * Represents a resolved, completed promise. This promise is more efficient
  * than using {@link SettleablePromise} and completing it.
  *
+ * A resolved promise is immutable, so {@link Promise#resolve(Object)} shares
+ * one instance for null, {@link Boolean#TRUE}, {@link Boolean#FALSE} and the
+ * cached small integers. Callbacks run straight away, and transforming it
+ * applies the transform function straight away and returns a resolved or
+ * rejected promise instead of a pending promise that is settled at once.
+ *
  * @param <T> The type of the resolved value of the promise
  * @author Sparky
  * @since 1.0
@@ -35,7 +43,21 @@ import java.util.List;
  */
 public class ResolvedPromise<T> implements Promise<T> {
     
-    private final List<Callback<Throwable>> rejectCallbacks = new ArrayList<>(3);
+    private static final int LOW = -128;
+    private static final int HIGH = 127;
+    
+    private static final ResolvedPromise<?> NULL = new ResolvedPromise<>(null);
+    private static final ResolvedPromise<?> TRUE = new ResolvedPromise<>(Boolean.TRUE);
+    private static final ResolvedPromise<?> FALSE = new ResolvedPromise<>(Boolean.FALSE);
+    private static final ResolvedPromise<?>[] INTEGERS = new ResolvedPromise<?>[HIGH - LOW + 1];
+    
+    static {
+        
+        for (int i = 0; i < INTEGERS.length; i++)
+            INTEGERS[i] = new ResolvedPromise<>(Integer.valueOf(i + LOW));
+        
+    }
+    
     private final T result;
     
     /**
@@ -50,6 +72,87 @@ public class ResolvedPromise<T> implements Promise<T> {
         
     }
     
+    /**
+     * Gets a resolved promise with specified result, sharing the canonical
+     * instance for null, booleans and small integers.
+     *
+     * @param result The result of the promise
+     * @param <T> The type of the promise
+     * @return The resolved promise
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    static <T> ResolvedPromise<T> of(@Nullable T result) {
+        
+        if (result == null) return (ResolvedPromise<T>) NULL;
+        if (result == Boolean.TRUE) return (ResolvedPromise<T>) TRUE;
+        if (result == Boolean.FALSE) return (ResolvedPromise<T>) FALSE;
+        
+        if (result instanceof Integer) {
+            int value = (Integer) result;
+            // Only the cached instance itself is shared, so the result keeps its identity
+            if (value >= LOW && value <= HIGH && INTEGERS[value - LOW].result == result)
+                return (ResolvedPromise<T>) INTEGERS[value - LOW];
+        }
+        
+        return new ResolvedPromise<>(result);
+        
+    }
+    
+    /**
+     * Applies a transform function to a result straight away.
+     *
+     * @param transform The transform function
+     * @param value The result to transform
+     * @param <T> The type of the result
+     * @param <R> The type of the transformed value
+     * @return A promise resolved to the transformed value, or rejected if the
+     * transform function fails
+     * @throws IllegalArgumentException if transform is null
+     */
+    @NotNull
+    static <T, R> Promise<R> transform(@NotNull Function<T, R> transform, T value) {
+        
+        if (transform == null) throw new IllegalArgumentException("transform must not be null");
+        
+        R result;
+        try {
+            result = transform.apply(value);
+        } catch (Exception e) {
+            return new RejectedPromise<>(e);
+        }
+        
+        return of(result);
+        
+    }
+    
+    /**
+     * Applies a flat map function to a result straight away.
+     *
+     * @param flatMap The flat map function
+     * @param value The result to flat map
+     * @param <T> The type of the result
+     * @param <R> The type of the returned promise
+     * @return The promise returned by the function, or a rejected promise if
+     * the function fails or returns null
+     * @throws IllegalArgumentException if flatMap is null
+     */
+    @NotNull
+    static <T, R> Promise<R> flatMap(@NotNull Function<T, Promise<R>> flatMap, T value) {
+        
+        if (flatMap == null) throw new IllegalArgumentException("flatMap must not be null");
+        
+        Promise<R> promise;
+        try {
+            promise = flatMap.apply(value);
+        } catch (Exception e) {
+            return new RejectedPromise<>(e);
+        }
+        
+        return promise != null ? promise : new RejectedPromise<>(new NullPointerException("flatMap function returned null"));
+        
+    }
+    
     @Override
     @NotNull
     public State getState() { return State.RESOLVED; }
@@ -73,7 +176,7 @@ public class ResolvedPromise<T> implements Promise<T> {
         try {
             fulfil.run(result);
         } catch (Exception e) {
-            reject(e);
+            PromiseRuntime.handleException(e);
         }
         return this;
     
@@ -84,7 +187,12 @@ public class ResolvedPromise<T> implements Promise<T> {
     @Contract("_ -> this")
     public Promise<T> then(@NotNull Runnable fulfil) {
         
-        return then(new RunnableCallback<>(fulfil));
+        try {
+            fulfil.run();
+        } catch (Exception e) {
+            PromiseRuntime.handleException(e);
+        }
+        return this;
         
     }
     
@@ -100,12 +208,7 @@ public class ResolvedPromise<T> implements Promise<T> {
     @Override
     @NotNull
     @Contract("_ -> this")
-    public Promise<T> catchException(@NotNull Callback<@NotNull Throwable> reject) {
-        
-        rejectCallbacks.add(reject);
-        return this;
-    
-    }
+    public Promise<T> catchException(@NotNull Callback<@NotNull Throwable> reject) { return this; }
     
     @Override
     @NotNull
@@ -117,27 +220,31 @@ public class ResolvedPromise<T> implements Promise<T> {
         
     }
     
-    /**
-     * Rejects the promise with specified reason.
-     *
-     * @param reason The reason for the rejection
-     * @throws IllegalStateException if state is not {@link State#PENDING}
-     * @throws IllegalArgumentException if reason is null
-     * @since 1.0
-     */
-    private void reject(@NotNull Throwable reason) {
-        
-        for (Callback<Throwable> callback : rejectCallbacks)
-            try {
-                callback.run(reason);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        
-    }
+    @Override
+    @NotNull
+    public <R> Promise<R> transform(@NotNull Function<T, R> transform) { return transform(transform, result); }
+    
+    @Override
+    @NotNull
+    public <R> Promise<R> flatMap(@NotNull Function<T, Promise<R>> flatMap) { return flatMap(flatMap, result); }
     
     @Override
     @NonBlocking
     public void await() { }
     
+    @Override
+    @NonBlocking
+    public boolean await(@NotNull Duration timeout) { return true; }
+    
+    @Override
+    @NonBlocking
+    public T join() { return result; }
+    
+    @Override
+    public T getNow(T valueIfPending) { return result; }
+    
+    @Override
+    @NotNull
+    public CompletableFuture<T> toCompletableFuture() { return CompletableFuture.completedFuture(result); }
+    
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Decides how often and how long after a failure {@link Promise#retry} tries
+ * again. The delay before each retry grows exponentially from the initial
+ * backoff up to the maximum backoff, and a random part of each delay is taken
+ * off so that clients that failed together do not retry together.
+ *
+ * Policies are immutable, each <code>with</code> method returns a new policy.
+ *
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#retry(java.util.function.Supplier, RetryPolicy)
+ */
+public final class RetryPolicy {
+    
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double multiplier;
+    private final double jitter;
+    private final Predicate<@NotNull Throwable> retryable;
+    
+    private RetryPolicy(int maxAttempts,
+                        @NotNull Duration initialBackoff,
+                        @NotNull Duration maxBackoff,
+                        double multiplier,
+                        double jitter,
+                        @NotNull Predicate<@NotNull Throwable> retryable) {
+        
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.retryable = retryable;
+        
+    }
+    
+    /**
+     * Creates a policy that makes at most the specified number of attempts,
+     * waiting 100 milliseconds before the first retry and doubling the wait
+     * up to 10 seconds, with half of each wait random. Every exception is
+     * retried.
+     *
+     * @param maxAttempts The maximum number of attempts, including the first
+     * @return The newly created policy
+     * @throws IllegalArgumentException if maxAttempts is less than 1
+     * @since 1.5
+     */
+    @NotNull
+    public static RetryPolicy maxAttempts(int maxAttempts) {
+        
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be at least 1");
+        
+        return new RetryPolicy(maxAttempts, Duration.ofMillis(100), Duration.ofSeconds(10), 2.0, 0.5, (reason) -> true);
+        
+    }
+    
+    /**
+     * Creates a copy of this policy with the specified exponential backoff.
+     *
+     * @param initialBackoff The wait before the first retry
+     * @param maxBackoff The longest wait between attempts
+     * @param multiplier What each wait is multiplied by for the next one
+     * @return The newly created policy
+     * @throws IllegalArgumentException if initialBackoff or maxBackoff are null
+     * or negative, or multiplier is less than 1
+     * @since 1.5
+     */
+    @NotNull
+    public RetryPolicy withBackoff(@NotNull Duration initialBackoff, @NotNull Duration maxBackoff, double multiplier) {
+        
+        if (initialBackoff == null || initialBackoff.isNegative())
+            throw new IllegalArgumentException("initialBackoff must not be null or negative");
+        if (maxBackoff == null || maxBackoff.isNegative())
+            throw new IllegalArgumentException("maxBackoff must not be null or negative");
+        if (!(multiplier >= 1.0)) throw new IllegalArgumentException("multiplier must be at least 1");
+        
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, multiplier, jitter, retryable);
+        
+    }
+    
+    /**
+     * Creates a copy of this policy that takes a random part of up to the
+     * specified fraction off each wait. 0 disables jitter and 1 makes the
+     * whole wait random.
+     *
+     * @param jitter The fraction of each wait that is random
+     * @return The newly created policy
+     * @throws IllegalArgumentException if jitter is not between 0 and 1
+     * @since 1.5
+     */
+    @NotNull
+    public RetryPolicy withJitter(double jitter) {
+        
+        if (!(jitter >= 0.0 && jitter <= 1.0)) throw new IllegalArgumentException("jitter must be between 0 and 1");
+        
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, multiplier, jitter, retryable);
+        
+    }
+    
+    /**
+     * Creates a copy of this policy that only retries the exceptions matching
+     * the specified predicate. Other exceptions reject the promise straight
+     * away.
+     *
+     * @param retryable Whether an exception is retried
+     * @return The newly created policy
+     * @throws IllegalArgumentException if retryable is null
+     * @since 1.5
+     */
+    @NotNull
+    public RetryPolicy withRetryable(@NotNull Predicate<@NotNull Throwable> retryable) {
+        
+        if (retryable == null) throw new IllegalArgumentException("retryable must not be null");
+        
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, multiplier, jitter, retryable);
+        
+    }
+    
+    /**
+     * Gets the maximum number of attempts, including the first.
+     *
+     * @return The maximum number of attempts
+     * @since 1.5
+     */
+    public int getMaxAttempts() { return maxAttempts; }
+    
+    /**
+     * Decides whether to try again after the specified failed attempt.
+     *
+     * @param attempt The number of the failed attempt, starting at 1
+     * @param reason The reason the attempt failed
+     * @return Whether to try again
+     * @since 1.5
+     */
+    public boolean shouldRetry(int attempt, @NotNull Throwable reason) {
+        
+        return attempt < maxAttempts && retryable.test(reason);
+        
+    }
+    
+    /**
+     * Gets the wait in nanoseconds before retrying the specified failed
+     * attempt, including jitter.
+     *
+     * @param attempt The number of the failed attempt, starting at 1
+     * @return The wait in nanoseconds
+     * @since 1.5
+     */
+    public long backoffNanos(int attempt) {
+        
+        double max = HashedWheelTimer.toNanos(maxBackoff);
+        double backoff = Math.min(max, HashedWheelTimer.toNanos(initialBackoff) * Math.pow(multiplier, attempt - 1));
+        
+        return (long) (backoff * (1.0 - jitter * ThreadLocalRandom.current().nextDouble()));
+        
+    }
+    
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A promise that is settled the same way as the first successful attempt, or
+ * the last attempt if every attempt fails. Failed attempts are retried
+ * according to a {@link RetryPolicy}.
+ *
+ * The wait between attempts is scheduled on the timer of a
+ * {@link PromiseRuntime}, so no thread is held while waiting. The first
+ * attempt starts on the constructing thread and each retry is started by the
+ * executor given to the constructor, which is the executor of the current
+ * runtime for {@link Promise#retry(Supplier, RetryPolicy)}. Cancelling the
+ * promise cancels the wait or the current attempt.
+ *
+ * @param <T> The type of the promise
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#retry(Supplier, RetryPolicy)
+ * @see Promise#retry(Supplier, RetryPolicy, java.util.concurrent.Executor)
+ */
+public class RetryPromise<T> extends AbstractCompletablePromise<T> {
+    
+    private final Supplier<@NotNull Promise<T>> supplier;
+    private final RetryPolicy policy;
+    private final Executor executor;
+    
+    /**
+     * The number of attempts that were started. Attempts run one after the
+     * other, each starting after the previous one has failed.
+     */
+    private int attempts;
+    @Nullable private volatile Subscription<?> attempt;
+    @Nullable private volatile PromiseTimer.Scheduled timer;
+    
+    /**
+     * Constructs a new <code>RetryPromise</code> that waits on the timer of
+     * the {@link PromiseRuntime#current() current runtime} and starts the
+     * first attempt on the current thread.
+     *
+     * @param supplier Starts an attempt
+     * @param policy The retry policy
+     * @param executor The executor that starts retries
+     * @throws IllegalArgumentException if supplier, policy or executor are
+     * null
+     * @since 1.5
+     */
+    public RetryPromise(@NotNull Supplier<@NotNull Promise<T>> supplier,
+                        @NotNull RetryPolicy policy,
+                        @NotNull Executor executor) {
+        
+        this(supplier, policy, executor, PromiseRuntime.current());
+        
+    }
+    
+    /**
+     * Constructs a new <code>RetryPromise</code> that waits on the timer of
+     * the specified runtime and starts the first attempt on the current
+     * thread.
+     *
+     * @param supplier Starts an attempt
+     * @param policy The retry policy
+     * @param executor The executor that starts retries
+     * @param runtime The runtime
+     * @throws IllegalArgumentException if supplier, policy, executor or
+     * runtime are null
+     * @since 1.5
+     */
+    public RetryPromise(@NotNull Supplier<@NotNull Promise<T>> supplier,
+                        @NotNull RetryPolicy policy,
+                        @NotNull Executor executor,
+                        @NotNull PromiseRuntime runtime) {
+        
+        super(runtime);
+        
+        this.supplier = supplier;
+        this.policy = policy;
+        this.executor = executor;
+        
+        attempt();
+        
+    }
+    
+    /**
+     * Cancels the wait for the next attempt, or unsubscribes from the current
+     * attempt and cancels it if nothing else is subscribed to it.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        PromiseTimer.Scheduled timer = this.timer;
+        if (timer != null) timer.cancel();
+        
+        Subscription<?> attempt = this.attempt;
+        if (attempt != null) attempt.cancelSource();
+        
+    }
+    
+    private void attempt() {
+        
+        if (getState() != State.PENDING) return;
+        
+        attempts++;
+        
+        Promise<T> promise;
+        try {
+            promise = supplier.get();
+        } catch (Exception e) {
+            failed(e);
+            return;
+        }
+        
+        if (promise == null) {
+            failed(new NullPointerException("Retry supplier returned null"));
+            return;
+        }
+        
+        Attempt attempt = new Attempt();
+        this.attempt = attempt;
+        attempt.subscribe(promise);
+        // The promise may have been cancelled before attempt was set
+        if (getState() == State.CANCELLED) attempt.cancelSource();
+        
+    }
+    
+    /**
+     * Decides whether to retry after a failed attempt. The retryable
+     * predicate, the metrics hook and the timer are user code, so if any of
+     * them throws the promise is rejected with that exception rather than
+     * left pending.
+     */
+    private void failed(@NotNull Throwable reason) {
+        
+        PromiseTimer.Scheduled timer;
+        try {
+            if (!policy.shouldRetry(attempts, reason)) {
+                tryReject(reason);
+                return;
+            }
+            
+            runtime().metrics().onRetry(attempts, reason);
+            
+            timer = runtime().timer().schedule(this::retry, policy.backoffNanos(attempts), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            tryReject(e);
+            return;
+        }
+        
+        this.timer = timer;
+        // The promise may have been cancelled before timer was set
+        if (getState() == State.CANCELLED) timer.cancel();
+        
+    }
+    
+    private void retry() {
+        
+        try {
+            executor.execute(this::attempt);
+        } catch (RejectedExecutionException e) {
+            tryReject(e);
+        }
+        
+    }
+    
+    private final class Attempt extends Subscription<T> {
+        
+        @Override
+        void onResolve(T result) { tryResolve(result); }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { failed(reason); }
+        
+    }
+    
+}
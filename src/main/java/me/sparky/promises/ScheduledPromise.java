@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A promise that is settled with the outcome of a task that is run after a
+ * delay. The delay is scheduled on the timer of a {@link PromiseRuntime}, so
+ * a delayed promise does not hold a thread while it waits.
+ *
+ * Cancelling the promise cancels the delay, or interrupts the task if it is
+ * running.
+ *
+ * @param <T> The type of the promise
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#delay(Duration, Object)
+ * @see Promise#schedule(Duration, Callable)
+ * @see Promise#schedule(Duration, Callable, Executor)
+ */
+public class ScheduledPromise<T> extends AbstractCompletablePromise<T> {
+    
+    private final Callable<T> task;
+    @Nullable private final Executor executor;
+    private final PromiseTimer.Scheduled timer;
+    @Nullable private volatile FutureTask<Void> running;
+    
+    /**
+     * Constructs a new <code>ScheduledPromise</code> whose task is run by the
+     * timer of the {@link PromiseRuntime#current() current runtime}. The task
+     * should be short, since it holds up the other tasks of the timer. The
+     * callbacks are run by the default executor of the runtime.
+     *
+     * @param delay The delay before the task is run
+     * @param task The task
+     * @throws IllegalArgumentException if delay or task are null
+     * @since 1.5
+     */
+    public ScheduledPromise(@NotNull Duration delay, @NotNull Callable<T> task) {
+        
+        this(delay, task, null);
+        
+    }
+    
+    /**
+     * Constructs a new <code>ScheduledPromise</code> whose task is run by the
+     * specified executor after a delay on the timer of the
+     * {@link PromiseRuntime#current() current runtime}.
+     *
+     * @param delay The delay before the task is run
+     * @param task The task
+     * @param executor The executor that runs the task, or null to run it on
+     *                 the timer
+     * @throws IllegalArgumentException if delay or task are null
+     * @since 1.5
+     */
+    public ScheduledPromise(@NotNull Duration delay, @NotNull Callable<T> task, @Nullable Executor executor) {
+        
+        this(delay, task, executor, PromiseRuntime.current());
+        
+    }
+    
+    /**
+     * Constructs a new <code>ScheduledPromise</code> whose task is run by the
+     * specified executor after a delay on the timer of the specified runtime.
+     *
+     * @param delay The delay before the task is run
+     * @param task The task
+     * @param executor The executor that runs the task, or null to run it on
+     *                 the timer and the callbacks on the default executor of
+     *                 the runtime
+     * @param runtime The runtime
+     * @throws IllegalArgumentException if delay, task or runtime are null
+     * @since 1.5
+     */
+    public ScheduledPromise(@NotNull Duration delay,
+                            @NotNull Callable<T> task,
+                            @Nullable Executor executor,
+                            @NotNull PromiseRuntime runtime) {
+        
+        super(runtime);
+        
+        this.task = task;
+        this.executor = executor;
+        this.timer = runtime.timer().schedule(this::fire, HashedWheelTimer.toNanos(delay), TimeUnit.NANOSECONDS);
+        
+    }
+    
+    /**
+     * Cancels the delay, or interrupts the task if it is running.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        timer.cancel();
+        
+        FutureTask<Void> running = this.running;
+        if (running != null) running.cancel(true);
+        
+    }
+    
+    private void fire() {
+        
+        if (executor == null) {
+            expire();
+            return;
+        }
+        
+        FutureTask<Void> running = new FutureTask<>(this::call, null);
+        this.running = running;
+        // The promise may have been cancelled before running was set
+        if (getState() == State.CANCELLED) running.cancel(true);
+        
+        try {
+            executor.execute(running);
+        } catch (RejectedExecutionException e) {
+            tryReject(e);
+        }
+        
+    }
+    
+    /**
+     * Runs the task on the timer thread, but only claims the promise there and
+     * leaves the callbacks to the default executor of the runtime.
+     */
+    private void expire() {
+        
+        if (getState() != State.PENDING) return;
+        
+        Completion<T> completions;
+        try {
+            completions = complete(task.call(), null);
+        } catch (Exception e) {
+            completions = complete(null, e);
+        }
+        
+        if (completions != null && completions != EMPTY) {
+            Completion<T> detached = completions;
+            runtime().execute(() -> Trampoline.run(this, detached));
+        }
+        
+    }
+    
+    private void call() {
+        
+        if (getState() != State.PENDING) return;
+        
+        try {
+            tryResolve(task.call());
+        } catch (Exception e) {
+            tryReject(e);
+        }
+        
+    }
+    
+}
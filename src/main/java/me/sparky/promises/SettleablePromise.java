@@ -17,10 +17,14 @@
 package me.sparky.promises;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a promise that can be completed (resolved or rejected).
@@ -32,18 +36,72 @@ import java.util.concurrent.ForkJoinPool;
 public class SettleablePromise<T> extends AbstractCompletablePromise<T> {
     
     /**
-     * The default thread pool that is used to execute.
+     * The default thread pool that is used to execute, unless another
+     * executor is set on the {@link PromiseRuntime}.
      *
      * @since 1.0
+     * @see PromiseRuntime#executor()
      */
     public static final ExecutorService threadPool = ForkJoinPool.commonPool();
     
+    /**
+     * Gets the thread pool for executors that block, which starts a new
+     * thread for each executor so that blocking executors do not starve the
+     * {@link #threadPool default thread pool}. On Java 21 and later the
+     * threads are virtual threads, so hundreds of thousands of executors may
+     * block at the same time. Before Java 21 they are daemon platform threads.
+     *
+     * @return The thread pool for blocking executors
+     * @since 1.5
+     */
+    @NotNull
+    public static Executor blockingThreadPool() { return BlockingThreadPool.INSTANCE; }
+    
+    private static final class BlockingThreadPool {
+        
+        private static final Executor INSTANCE = create();
+        
+        @NotNull
+        private static Executor create() {
+            
+            Executor virtualThreads = VirtualThreads.newExecutor();
+            if (virtualThreads != null) return virtualThreads;
+            
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool((runnable) -> {
+                Thread thread = new Thread(runnable, "promise-blocking-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            
+        }
+        
+    }
+    
+    /**
+     * The task that runs the executor, cancelled when the promise is.
+     */
+    @Nullable private final FutureTask<Void> task;
+    
     /**
      * Constructs a new <code>SettleablePromise</code>
      *
      * @since 1.0
      */
-    public SettleablePromise() { }
+    public SettleablePromise() { this.task = null; }
+    
+    /**
+     * Constructs a new <code>SettleablePromise</code> that uses the specified
+     * runtime instead of the current one.
+     *
+     * @param runtime The runtime of the promise
+     */
+    SettleablePromise(@NotNull PromiseRuntime runtime) {
+        
+        super(runtime);
+        this.task = null;
+        
+    }
     
     /**
      * Constructs a new <code>SettleablePromise</code>
@@ -51,14 +109,16 @@ public class SettleablePromise<T> extends AbstractCompletablePromise<T> {
      * @param executor A callback which takes in 1 argument the promise and
      *                 reject or resolve the promise.
      *
-     *                 Note: This operation is as asynchronous.
+     *                 Note: This operation is as asynchronous. It is run
+     *                 by the executor of the
+     *                 {@link PromiseRuntime#current() current runtime}.
      * @throws IllegalArgumentException if executor is null
      * @since 1.0
      * @see SettleablePromise#threadPool
      */
     public SettleablePromise(@NotNull me.sparky.promises.Executor<T> executor) {
         
-        this(executor, threadPool);
+        this(executor, PromiseRuntime.current().executor());
         
     }
     
@@ -72,18 +132,34 @@ public class SettleablePromise<T> extends AbstractCompletablePromise<T> {
      * @param threadPool The executor that executes
      * @throws IllegalArgumentException if executor or threadPool is null
      * @since 1.0
+     * @see #cancel()
      */
     public SettleablePromise(@NotNull me.sparky.promises.Executor<@NotNull T> executor, @NotNull Executor threadPool) {
         
-        threadPool.execute(() -> {
+        this.task = new FutureTask<>(() -> {
             
             try {
                 executor.execute(this);
             } catch (Exception e) {
-                reject(e);
+                tryReject(e);
             }
     
-        });
+        }, null);
+        
+        threadPool.execute(task);
+        
+    }
+    
+    /**
+     * Cancels the executor, so it is not run if it has not started yet and is
+     * interrupted if it is running.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        if (task != null) task.cancel(true);
         
     }
     
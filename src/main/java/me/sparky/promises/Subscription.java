@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A subscriber to the outcome of a promise that is a single link in the
+ * promise's callback chain, instead of a pair of fulfil and reject callbacks.
+ * Used by the promises of this library to subscribe to their inputs.
+ *
+ * A subscription can only be subscribed to one promise. It can be removed
+ * from the promise with {@link #unsubscribe()}, after which it is never
+ * called.
+ *
+ * @param <T> The type of the promise
+ * @author Sparky
+ * @since 1.5
+ */
+abstract class Subscription<T> extends AbstractPromise.Completion<T> {
+    
+    @Nullable private AbstractPromise<T> source;
+    private volatile boolean disposed;
+    
+    /**
+     * Called when the promise is resolved.
+     *
+     * @param result The result of the promise
+     */
+    abstract void onResolve(T result);
+    
+    /**
+     * Called when the promise is rejected.
+     *
+     * @param reason The reason for the rejection
+     */
+    abstract void onReject(@NotNull Throwable reason);
+    
+    @Override
+    final void run(@NotNull AbstractPromise<T> promise) {
+        
+        if (disposed) return;
+        
+        // A settled promise no longer needs to be unlinked from
+        source = null;
+        
+        Throwable reason = promise.reason();
+        
+        if (reason != null) onReject(reason);
+        else resolved(promise);
+        
+    }
+    
+    /**
+     * Called when the promise is resolved, before {@link #onResolve(Object)}.
+     * Overridden by subscriptions to primitive promises to read the result
+     * without boxing it.
+     *
+     * @param promise The resolved promise
+     */
+    void resolved(@NotNull AbstractPromise<T> promise) { onResolve(promise.result()); }
+    
+    /**
+     * Subscribes to the specified promise. If the promise is already settled
+     * this subscription is called immediately.
+     *
+     * @param promise The promise
+     */
+    final void subscribe(@NotNull Promise<T> promise) {
+        
+        if (promise instanceof AbstractPromise) {
+            AbstractPromise<T> source = (AbstractPromise<T>) promise;
+            this.source = source;
+            if (source.getState() != Promise.State.PENDING || !source.push(this)) run(source);
+        } else if (promise instanceof ResolvedPromise) {
+            onResolve(promise.getNow(null));
+        } else if (promise instanceof RejectedPromise) {
+            onReject(((RejectedPromise<T>) promise).reason());
+        } else {
+            promise
+                    .then(this::onResolve)
+                    .catchException(this::onReject);
+        }
+        
+    }
+    
+    /**
+     * Removes this subscription from the promise it is subscribed to. Once
+     * unsubscribed it is never called. Only promises of this library can
+     * unlink it from their callback chain, other promises keep a reference to
+     * it until they settle.
+     */
+    final void unsubscribe() {
+        
+        disposed = true;
+        
+        AbstractPromise<T> source = this.source;
+        if (source != null) {
+            this.source = null;
+            source.unlinkDisposed();
+        }
+        
+    }
+    
+    /**
+     * Unsubscribes from the promise and cancels it if nothing else is
+     * subscribed to it.
+     */
+    final void cancelSource() {
+        
+        AbstractPromise<T> source = this.source;
+        
+        unsubscribe();
+        if (source != null) source.cancelIfUnobserved();
+        
+    }
+    
+    @Override
+    final boolean isDisposed() { return disposed; }
+    
+}
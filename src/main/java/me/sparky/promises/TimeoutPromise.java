@@ -0,0 +1,145 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A promise that is settled the same way as the current promise, or rejected
+ * with a {@link TimeoutException} if the current promise is not settled
+ * within the timeout. When the timeout elapses the current promise is
+ * cancelled if nothing else is subscribed to it.
+ *
+ * The timeout is scheduled on the timer of a {@link PromiseRuntime} and is
+ * cancelled as soon as the current promise settles. When it elapses the timer
+ * thread only claims the promise, the current promise is cancelled and the
+ * callbacks are run by the default executor of the runtime.
+ *
+ * @param <T> The type of the promise
+ * @author Sparky
+ * @since 1.5
+ * @see Promise#timeout(Duration)
+ */
+public class TimeoutPromise<T> extends AbstractCompletablePromise<T> {
+    
+    private final Source source;
+    private final Duration timeout;
+    @Nullable private volatile PromiseTimer.Scheduled timer;
+    
+    /**
+     * Constructs a new <code>TimeoutPromise</code> that uses the timer of the
+     * {@link PromiseRuntime#current() current runtime}.
+     *
+     * @param from The promise to time out
+     * @param timeout The maximum time to wait for the promise
+     * @throws IllegalArgumentException if from or timeout are null
+     * @since 1.5
+     */
+    public TimeoutPromise(@NotNull Promise<T> from, @NotNull Duration timeout) {
+        
+        this(from, timeout, PromiseRuntime.current());
+        
+    }
+    
+    /**
+     * Constructs a new <code>TimeoutPromise</code> that uses the timer of the
+     * specified runtime.
+     *
+     * @param from The promise to time out
+     * @param timeout The maximum time to wait for the promise
+     * @param runtime The runtime
+     * @throws IllegalArgumentException if from, timeout or runtime are null
+     * @since 1.5
+     */
+    public TimeoutPromise(@NotNull Promise<T> from, @NotNull Duration timeout, @NotNull PromiseRuntime runtime) {
+        
+        super(runtime);
+        
+        this.source = new Source();
+        this.timeout = timeout;
+        
+        source.subscribe(from);
+        if (getState() != State.PENDING) return;
+        
+        PromiseTimer.Scheduled timer = runtime.timer()
+                .schedule(this::expire, HashedWheelTimer.toNanos(timeout), TimeUnit.NANOSECONDS);
+        this.timer = timer;
+        // The promise may have been settled before the timer was set
+        if (getState() != State.PENDING) timer.cancel();
+        
+    }
+    
+    /**
+     * Cancels the timeout, then unsubscribes from the current promise and
+     * cancels it if nothing else is subscribed to it.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
+        
+        cancelTimer();
+        source.cancelSource();
+        
+    }
+    
+    private void expire() {
+        
+        Completion<T> completions = complete(null, new TimeoutException("Promise timed out after " + timeout));
+        if (completions == null) return;
+        
+        PromiseRuntime runtime = runtime();
+        runtime.execute(() -> {
+            runtime.metrics().onTimeout();
+            // Cancel the current promise before the callbacks see the timeout
+            source.cancelSource();
+            if (completions != EMPTY) Trampoline.run(this, completions);
+        });
+        
+    }
+    
+    private void cancelTimer() {
+        
+        PromiseTimer.Scheduled timer = this.timer;
+        if (timer != null) timer.cancel();
+        
+    }
+    
+    private final class Source extends Subscription<T> {
+        
+        @Override
+        void onResolve(T result) {
+            
+            if (tryResolve(result)) cancelTimer();
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) {
+            
+            if (tryReject(reason)) cancelTimer();
+            
+        }
+        
+    }
+    
+}
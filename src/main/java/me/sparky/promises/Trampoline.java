@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+
+/**
+ * Runs the callback chains of settled promises on the current thread with a
+ * constant stack depth. A chain that is handed over while another chain is
+ * running on the same thread is queued and run by the outermost call once the
+ * running chain has finished, instead of being run recursively. A callback
+ * that waits for a promise runs the queued chains first, since they would
+ * otherwise only run after the callback returns and the wait would never end.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+final class Trampoline {
+    
+    private static final ThreadLocal<Trampoline> CURRENT = ThreadLocal.withInitial(Trampoline::new);
+    
+    /**
+     * Pairs of promises and their chains that are waiting to be run.
+     */
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    private boolean running;
+    
+    private Trampoline() { }
+    
+    /**
+     * Runs the callback chain of the specified promise, or queues it if a
+     * chain is already running on this thread.
+     *
+     * @param promise The settled promise
+     * @param completions The first completion of the promise's chain
+     * @param <T> The type of the promise
+     */
+    static <T> void run(@NotNull AbstractPromise<T> promise,
+                        @NotNull AbstractPromise.Completion<T> completions) {
+        
+        Trampoline trampoline = CURRENT.get();
+        
+        if (trampoline.running) {
+            trampoline.queue.add(promise);
+            trampoline.queue.add(completions);
+            return;
+        }
+        
+        trampoline.running = true;
+        try {
+            promise.runCompletions(completions);
+        } finally {
+            // Also runs the chains queued behind a chain that threw an error,
+            // and never leaves them to a later, unrelated call on this thread
+            try {
+                trampoline.drain();
+            } finally {
+                trampoline.queue.clear();
+                trampoline.running = false;
+            }
+        }
+        
+    }
+    
+    /**
+     * Runs the chains that are queued on this thread, if a chain is running
+     * on it. Called before a thread waits for a promise, which may be settled
+     * by one of the queued chains.
+     */
+    static void runQueued() {
+        
+        Trampoline trampoline = CURRENT.get();
+        if (trampoline.running) trampoline.drain();
+        
+    }
+    
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void drain() {
+        
+        Object promise;
+        while ((promise = queue.poll()) != null)
+            ((AbstractPromise) promise).runCompletions((AbstractPromise.Completion) queue.poll());
+        
+    }
+    
+}
@@ -17,7 +17,10 @@
 package me.sparky.promises;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
 
 /**
@@ -25,13 +28,22 @@ import java.util.function.Function;
  * current promise is resolved, and is rejected when the current promise is
  * rejected or if the transform function fails.
  *
+ * A transform promise subscribes with a single link in the callback chain of
+ * the promise it transforms. When that promise settles and the only
+ * subscriber of a transform promise is another transform promise, the
+ * consecutive transform functions are fused: they are applied one after the
+ * other in a single loop rather than through each promise's callbacks.
+ *
  * @param <T> The return of the transform function
  * @author Sparky
  * @since 1.3
  * @see Promise#transform(Function)
+ * @see Promise#transformAsync(Function, Executor)
  */
 public class TransformPromise<T> extends AbstractCompletablePromise<T> {
     
+    private final Subscription<?> link;
+    
     /**
      * Constructs a new <code>TransformPromise</code>
      *
@@ -43,15 +55,127 @@ public class TransformPromise<T> extends AbstractCompletablePromise<T> {
      */
     public <F> TransformPromise(@NotNull Promise<F> from, @NotNull Function<F, T> transform) {
         
-        from
-                .then((value) -> {
-                    try {
-                        resolve(transform.apply(value));
-                    } catch (Exception e) {
-                        reject(e);
-                    }
-                })
-                .catchException(this::reject);
+        Link<F, T> link = new Link<>(transform, this, null);
+        this.link = link;
+        link.subscribe(from);
+        
+    }
+    
+    /**
+     * Constructs a new <code>TransformPromise</code> whose transform function
+     * is applied by the specified executor.
+     *
+     * @param from The promise being transformed from
+     * @param transform The transform function
+     * @param executor The executor that applies the transform function
+     * @param <F> The type of the promise being transformed
+     * @throws IllegalArgumentException if from, transform or executor are null
+     * @since 1.5
+     */
+    public <F> TransformPromise(@NotNull Promise<F> from,
+                                @NotNull Function<F, T> transform,
+                                @NotNull Executor executor) {
+        
+        Link<F, T> link = new Link<>(transform, this, executor);
+        this.link = link;
+        link.subscribe(from);
+        
+    }
+    
+    /**
+     * Unsubscribes from the promise being transformed and cancels it if
+     * nothing else is subscribed to it.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() { link.cancelSource(); }
+    
+    /**
+     * Applies the transform function and settles this promise, then keeps on
+     * applying the transform functions of any transform promises that are the
+     * only subscribers of the promise that was just settled.
+     *
+     * @param transform The transform function
+     * @param value The value to transform
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void apply(@NotNull Function transform, Object value) {
+        
+        TransformPromise target = this;
+        
+        while (true) {
+            
+            Object result = null;
+            Throwable reason = null;
+            try {
+                result = transform.apply(value);
+            } catch (Exception e) {
+                reason = e;
+            }
+            
+            Completion completions = target.complete(result, reason);
+            if (completions == null || completions == EMPTY) return;
+            
+            if (reason == null && completions instanceof Link && completions.next == null) {
+                Link link = (Link) completions;
+                if (link.executor == null) {
+                    transform = link.transform;
+                    value = result;
+                    target = link.target;
+                    continue;
+                }
+            }
+            
+            Trampoline.run(target, completions);
+            return;
+            
+        }
+        
+    }
+    
+    /**
+     * Subscribes a transform promise to the promise it transforms.
+     *
+     * @param <F> The type of the promise being transformed
+     * @param <T> The return of the transform function
+     */
+    private static final class Link<F, T> extends Subscription<F> {
+        
+        private final Function<F, T> transform;
+        private final TransformPromise<T> target;
+        @Nullable private final Executor executor;
+        
+        private Link(@NotNull Function<F, T> transform,
+                     @NotNull TransformPromise<T> target,
+                     @Nullable Executor executor) {
+            
+            this.transform = transform;
+            this.target = target;
+            this.executor = executor;
+            
+        }
+        
+        @Override
+        void onReject(@NotNull Throwable reason) { target.tryReject(reason); }
+        
+        @Override
+        void onResolve(F value) {
+            
+            if (executor == null) {
+                target.apply(transform, value);
+                return;
+            }
+            
+            try {
+                executor.execute(() -> {
+                    if (target.getState() == Promise.State.PENDING) target.apply(transform, value);
+                });
+            } catch (RejectedExecutionException e) {
+                target.tryReject(e);
+            }
+            
+        }
         
     }
     
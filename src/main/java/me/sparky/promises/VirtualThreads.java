@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Creates virtual threads where the runtime supports them. This version is
+ * used before Java 21, the multi-release JAR replaces it with one that
+ * creates virtual threads on Java 21 and later.
+ *
+ * @author Sparky
+ * @since 1.5
+ */
+final class VirtualThreads {
+    
+    private VirtualThreads() { }
+    
+    /**
+     * Creates an executor that runs each task on a new virtual thread.
+     *
+     * @return The executor, or null if virtual threads are not supported
+     */
+    @Nullable
+    static Executor newExecutor() { return null; }
+    
+}
@@ -18,6 +18,8 @@ package me.sparky.promises;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Collection;
 
 /**
@@ -31,8 +33,20 @@ import java.util.Collection;
  */
 public class WhenAllPromise extends AbstractCompletablePromise<Void> {
     
-    private final int total;
-    private int completed = 0;
+    private static final VarHandle REMAINING;
+    
+    static {
+        
+        try {
+            REMAINING = MethodHandles.lookup().findVarHandle(WhenAllPromise.class, "remaining", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        
+    }
+    
+    private final Subscription<?>[] inputs;
+    private volatile int remaining;
     
     /**
      * Constructs a new <code>WhenAllPromise</code>
@@ -41,31 +55,51 @@ public class WhenAllPromise extends AbstractCompletablePromise<Void> {
      * @throws IllegalArgumentException if promises is null
      * @since 1.1
      */
+    @SuppressWarnings("unchecked")
     public WhenAllPromise(@NotNull Collection<@NotNull Promise<?>> promises) {
         
-        this.total = promises.size();
+        this.inputs = new Subscription<?>[promises.size()];
+        this.remaining = promises.size();
         
-        incrementAndCheckCompletion();
+        if (remaining == 0) {
+            resolve(null);
+            return;
+        }
         
-        for (Promise<?> promise1 : promises)
-            promise1
-                    .then(this::incrementAndCheckCompletion)
-                    .catchException(this::rejectIfPending);
+        int i = 0;
+        for (Promise<?> promise : promises) {
+            Input input = new Input();
+            inputs[i++] = input;
+            input.subscribe((Promise<Object>) promise);
+        }
         
     }
     
-    private void incrementAndCheckCompletion() {
+    /**
+     * Unsubscribes from the input promises and cancels the ones that nothing
+     * else is subscribed to.
+     *
+     * @since 1.5
+     */
+    @Override
+    protected void onCancel() {
         
-        if (state == State.REJECTED) return;
-        synchronized (this) {
-            if (++completed > total) resolve(null);
-        }
+        for (Subscription<?> input : inputs)
+            if (input != null) input.cancelSource();
         
     }
     
-    private void rejectIfPending(@NotNull Throwable reason) {
+    private final class Input extends Subscription<Object> {
+        
+        @Override
+        void onResolve(Object result) {
+            
+            if ((int) REMAINING.getAndAdd(WhenAllPromise.this, -1) == 1) tryResolve(null);
+            
+        }
         
-        if (state == State.PENDING) reject(reason);
+        @Override
+        void onReject(@NotNull Throwable reason) { tryReject(reason); }
         
     }
     
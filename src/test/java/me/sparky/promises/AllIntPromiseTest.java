@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AllIntPromiseTest {
+    
+    @Test
+    void allInt_ResolvesToResults_InInputOrder() {
+        
+        val promise1 = new IntPromise();
+        val promise2 = new IntPromise();
+        val all = Promise.allInt(promise1, promise2, IntPromise.resolved(3));
+        
+        promise2.resolve(2);
+        assertEquals(Promise.State.PENDING, all.getState());
+        
+        promise1.resolve(1);
+        
+        assertArrayEquals(new int[] {1, 2, 3}, all.getNow(null));
+        
+    }
+    
+    @Test
+    void allInt_IsRejected_WhenAnyInputIsRejected() {
+        
+        val reason = new IllegalStateException();
+        val reasonRef = new Throwable[1];
+        val promise1 = new IntPromise();
+        
+        Promise.allInt(promise1, new IntPromise()).catchException((r) -> reasonRef[0] = r);
+        promise1.reject(reason);
+        
+        assertSame(reason, reasonRef[0]);
+        
+    }
+    
+    @Test
+    void allLongAndAllDouble_ResolveToPrimitiveArrays() {
+        
+        assertArrayEquals(new long[] {1L, 2L},
+                Promise.allLong(LongPromise.resolved(1L), LongPromise.resolved(2L)).getNow(null));
+        assertArrayEquals(new double[] {0.5, 1.5},
+                Promise.allDouble(DoublePromise.resolved(0.5), DoublePromise.resolved(1.5)).getNow(null));
+        
+    }
+    
+    @Test
+    void allInt_ResolvesEmptyArray_WhenNoInputs() {
+        
+        assertArrayEquals(new int[0], Promise.allInt().getNow(null));
+        
+    }
+    
+}
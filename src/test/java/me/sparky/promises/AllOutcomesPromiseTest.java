@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AllOutcomesPromiseTest {
+    
+    SettleablePromise<String> promise1;
+    SettleablePromise<String> promise2;
+    Promise<Outcomes<String>> allOutcomesPromise;
+    
+    @BeforeEach
+    void setUp() {
+        
+        promise1 = new SettleablePromise<>();
+        promise2 = new SettleablePromise<>();
+        allOutcomesPromise = Promise.allSettledOutcomes(promise1, promise2);
+        
+    }
+    
+    @Test
+    void resolves_WhenAllPromisesAreSettled() {
+        
+        promise1.resolve("1");
+        
+        assertEquals(Promise.State.PENDING, allOutcomesPromise.getState());
+        
+        promise2.reject("2");
+        
+        assertEquals(Promise.State.RESOLVED, allOutcomesPromise.getState());
+        
+    }
+    
+    @Test
+    void resolvesToResultsAndReasons() {
+        
+        val reason = new IllegalStateException("2");
+        
+        promise1.resolve("1");
+        promise2.reject(reason);
+        
+        val outcomes = allOutcomesPromise.getNow(null);
+        
+        assertEquals(2, outcomes.size());
+        assertEquals(Arrays.asList(Promise.State.RESOLVED, Promise.State.REJECTED), outcomes.states());
+        assertEquals("1", outcomes.getResult(0));
+        assertNull(outcomes.getReason(0));
+        assertNull(outcomes.getResult(1));
+        assertSame(reason, outcomes.getReason(1));
+        
+    }
+    
+}
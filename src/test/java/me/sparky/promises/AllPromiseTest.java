@@ -16,16 +16,24 @@
 
 package me.sparky.promises;
 
+import lombok.SneakyThrows;
 import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 class AllPromiseTest {
@@ -86,4 +94,59 @@ class AllPromiseTest {
         
     }
     
+    @SneakyThrows
+    @Test
+    void resolvesInOrder_WhenInputsResolveConcurrently() {
+        
+        val inputs = new ArrayList<SettleablePromise<Integer>>();
+        for (int i = 0; i < 10_000; i++)
+            inputs.add(new SettleablePromise<>());
+        
+        val allPromise = Promise.all(new ArrayList<Promise<Integer>>(inputs));
+        val pool = Executors.newFixedThreadPool(8);
+        
+        try {
+            for (int i = 0; i < inputs.size(); i++) {
+                val index = i;
+                pool.execute(() -> inputs.get(index).resolve(index));
+            }
+            
+            assertTrue(allPromise.await(Duration.ofSeconds(10)));
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        
+        val values = allPromise.getNow(null);
+        for (int i = 0; i < inputs.size(); i++)
+            assertEquals(i, values.get(i));
+        assertThrows(UnsupportedOperationException.class, () -> values.set(0, null));
+        
+    }
+    
+    @Test
+    void resolvesToEmptyList_WhenThereAreNoInputs() {
+        
+        val allPromise = Promise.all(Collections.<Promise<String>>emptyList());
+        
+        assertEquals(Promise.State.RESOLVED, allPromise.getState());
+        assertEquals(Collections.emptyList(), allPromise.getNow(null));
+        
+    }
+    
+    @Test
+    void cancel_CancelsInputsThatNothingElseIsSubscribedTo() {
+        
+        val input1 = new SettleablePromise<String>();
+        val input2 = new SettleablePromise<String>();
+        val allPromise = Promise.all(input1, input2);
+        
+        input2.then(() -> { });
+        
+        assertTrue(allPromise.cancel());
+        
+        assertEquals(Promise.State.CANCELLED, input1.getState());
+        assertEquals(Promise.State.PENDING, input2.getState());
+        
+    }
 }
@@ -16,13 +16,21 @@
 
 package me.sparky.promises;
 
+import lombok.SneakyThrows;
+import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AllSettledPromiseTest {
 
@@ -98,4 +106,44 @@ public class AllSettledPromiseTest {
         
     }
     
+    @SneakyThrows
+    @Test
+    void allSettledPromise_ResolvesOnce_WhenInputsSettleConcurrently() {
+        
+        val inputs = new ArrayList<SettleablePromise<Integer>>();
+        for (int i = 0; i < 10_000; i++)
+            inputs.add(new SettleablePromise<>());
+        
+        val allSettledPromise = Promise.allSettled(new ArrayList<Promise<?>>(inputs));
+        val pool = Executors.newFixedThreadPool(8);
+        
+        try {
+            for (int i = 0; i < inputs.size(); i++) {
+                val index = i;
+                pool.execute(() -> {
+                    if (index % 2 == 0) inputs.get(index).resolve(index);
+                    else inputs.get(index).reject("rejected");
+                });
+            }
+            
+            assertTrue(allSettledPromise.await(Duration.ofSeconds(10)));
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        
+        val states = allSettledPromise.getNow(null);
+        assertEquals(inputs.size(), states.size());
+        for (int i = 0; i < states.size(); i++)
+            assertEquals(i % 2 == 0 ? Promise.State.RESOLVED : Promise.State.REJECTED, states.get(i));
+        
+    }
+    
+    @Test
+    void allSettledPromise_Resolves_WhenThereAreNoInputs() {
+        
+        assertEquals(Promise.State.RESOLVED, Promise.allSettled(Collections.emptyList()).getState());
+        
+    }
+    
 }
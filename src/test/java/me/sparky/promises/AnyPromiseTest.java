@@ -20,11 +20,12 @@ import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.fail;
 
 class AnyPromiseTest {
@@ -52,14 +53,42 @@ class AnyPromiseTest {
     }
     
     @Test
-    void catchException_DoesNotRun_WhenInputIsRejected() {
+    void catchException_DoesNotRun_WhenSomeInputsAreRejected() {
         
-        val anyPromise = Promise.any(Collections.singletonList(Promise.reject("Rejected")));
+        val anyPromise = Promise.any(completablePromise, Promise.reject("Rejected"));
         
         anyPromise
-                .catchException((reason) -> fail("AnyPromise cannot be rejected"));
+                .catchException((reason) -> fail("AnyPromise was rejected before all its inputs"));
         
-        assertNotEquals(Promise.State.REJECTED, anyPromise.getState());
+        assertEquals(Promise.State.PENDING, anyPromise.getState());
+        
+    }
+    
+    @Test
+    void catchException_Runs_WhenAllInputsAreRejected() {
+        
+        val reason1 = new IllegalStateException("1");
+        val reason2 = new IllegalStateException("2");
+        val rejectCount = new AtomicInteger(0);
+        val anyPromise = Promise.any(completablePromise, Promise.reject(reason2));
+        
+        anyPromise
+                .catchException((reason) -> {
+                    rejectCount.incrementAndGet();
+                    assertInstanceOf(AggregateRejectionException.class, reason);
+                    assertEquals(Arrays.asList(reason1, reason2), ((AggregateRejectionException) reason).getReasons());
+                });
+        
+        completablePromise.reject(reason1);
+        
+        assertEquals(1, rejectCount.get());
+        
+    }
+    
+    @Test
+    void anyPromise_IsRejected_WhenThereAreNoInputs() {
+        
+        assertEquals(Promise.State.REJECTED, Promise.any(Collections.emptyList()).getState());
         
     }
     
@@ -18,14 +18,26 @@ package me.sparky.promises;
 
 import lombok.SneakyThrows;
 import lombok.val;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CompletablePromiseTest {
@@ -72,4 +84,395 @@ class CompletablePromiseTest {
         
     }
     
+    @SneakyThrows
+    @Test
+    void then_RunsEachCallbackOnce_WhenRegisteredConcurrentlyWithResolve() {
+        
+        val threads = 8;
+        val callbacksPerThread = 1000;
+        val pool = Executors.newFixedThreadPool(threads);
+        
+        try {
+            for (int attempt = 0; attempt < 20; attempt++) {
+                
+                val promise = new SettleablePromise<String>();
+                val ran = new AtomicInteger();
+                val start = new CountDownLatch(1);
+                val done = new CountDownLatch(threads);
+                
+                for (int i = 0; i < threads; i++)
+                    pool.execute(() -> {
+                        try {
+                            start.await();
+                            for (int j = 0; j < callbacksPerThread; j++)
+                                promise.then(ran::incrementAndGet);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                
+                start.countDown();
+                promise.resolve("resolved");
+                done.await();
+                
+                assertEquals(threads * callbacksPerThread, ran.get());
+                
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+    }
+    
+    @Test
+    void resolve_Throws_WhenAlreadySettled() {
+        
+        val promise = new SettleablePromise<String>();
+        promise.reject("rejected");
+        
+        assertThrows(IllegalStateException.class, () -> promise.resolve("resolved"));
+        assertEquals(Promise.State.REJECTED, promise.getState());
+        
+    }
+    
+    @Test
+    void catchException_RunsOnce_WhenAlreadyRejected() {
+        
+        val promise = new SettleablePromise<String>();
+        val ran = new AtomicInteger();
+        
+        promise.reject("rejected");
+        promise.catchException((reason) -> ran.incrementAndGet());
+        
+        assertEquals(1, ran.get());
+        
+    }
+    
+    @Test
+    void callbacks_RunInOrderTheyWereAdded() {
+        
+        val promise = new SettleablePromise<String>();
+        val order = new StringBuilder();
+        
+        promise
+                .then(() -> order.append('1'))
+                .after(() -> order.append('2'))
+                .catchException((reason) -> order.append('x'))
+                .then(() -> order.append('3'));
+        promise.resolve("resolved");
+        
+        assertEquals("123", order.toString());
+        
+    }
+    
+    @SneakyThrows
+    @Test
+    void thenAsync_RunsCallbackOnExecutor() {
+        
+        val executor = Executors.newSingleThreadExecutor();
+        
+        try {
+            val promise = new SettleablePromise<String>();
+            val thread = new AtomicReference<Thread>();
+            val ran = new CountDownLatch(1);
+            
+            promise.thenAsync((value) -> {
+                thread.set(Thread.currentThread());
+                ran.countDown();
+            }, executor);
+            promise.resolve("resolved");
+            
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+            assertNotEquals(Thread.currentThread(), thread.get());
+        } finally {
+            executor.shutdown();
+        }
+        
+    }
+    
+    @Test
+    void awaitWithTimeout_ReturnsFalse_WhenStillPending() {
+        
+        val promise = new SettleablePromise<String>();
+        
+        assertFalse(promise.await(Duration.ofMillis(50)));
+        
+        promise.resolve("resolved");
+        
+        assertTrue(promise.await(Duration.ofMillis(50)));
+        
+    }
+    
+    @Test
+    void awaitWithTimeout_UnlinksWaiter_WhenTimedOut() {
+        
+        val promise = new SettleablePromise<String>();
+        
+        for (int i = 0; i < 3; i++) assertFalse(promise.await(Duration.ofMillis(1)));
+        
+        // Only a promise with an empty callback chain is cancelled
+        assertTrue(promise.cancelIfUnobserved());
+        
+    }
+    
+    @Test
+    void join_ReturnsResult_WhenResolved() {
+        
+        val promise = new SettleablePromise<String>((completablePromise) -> {
+            Thread.sleep(100);
+            completablePromise.resolve("resolved");
+        });
+        
+        assertEquals("resolved", promise.join());
+        
+    }
+    
+    @Test
+    void join_ThrowsWithReason_WhenRejected() {
+        
+        val reason = new IllegalStateException("rejected");
+        val promise = new SettleablePromise<String>((completablePromise) -> {
+            Thread.sleep(100);
+            completablePromise.reject(reason);
+        });
+        
+        val exception = assertThrows(PromiseRejectionException.class, promise::join);
+        assertSame(reason, exception.getCause());
+        
+    }
+    
+    @Test
+    void transform_ReturnsResolvedPromise_WhenAlreadyResolved() {
+        
+        val promise = new SettleablePromise<String>();
+        promise.resolve("resolved");
+        
+        val transformed = promise.transform(String::length);
+        
+        assertInstanceOf(ResolvedPromise.class, transformed);
+        assertEquals(8, transformed.getNow(null));
+        
+    }
+    
+    @Test
+    void thenRunnable_RunsOnlyWhenResolved() {
+        
+        val ran = new AtomicInteger();
+        val resolved = new SettleablePromise<String>();
+        val rejected = new SettleablePromise<String>();
+        
+        resolved.then(ran::incrementAndGet);
+        rejected.then(ran::incrementAndGet);
+        resolved.resolve("resolved");
+        rejected.reject("rejected");
+        
+        assertEquals(1, ran.get());
+        
+    }
+    
+    @Test
+    void getNow_ReturnsDefault_WhenPending() {
+        
+        val promise = new SettleablePromise<String>();
+        
+        assertEquals("default", promise.getNow("default"));
+        
+        promise.resolve("resolved");
+        
+        assertEquals("resolved", promise.getNow("default"));
+        
+    }
+    
+    @SneakyThrows
+    @Test
+    void cancel_InterruptsRunningExecutor() {
+        
+        val started = new CountDownLatch(1);
+        val interrupted = new CountDownLatch(1);
+        val promise = new SettleablePromise<String>((completablePromise) -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                completablePromise.resolve("resolved");
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        
+        started.await();
+        
+        assertTrue(promise.cancel());
+        assertEquals(Promise.State.CANCELLED, promise.getState());
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        
+    }
+    
+    @Test
+    void cancel_RunsCatchExceptionWithCancellationException() {
+        
+        val reason = new AtomicReference<Throwable>();
+        val promise = new SettleablePromise<String>();
+        
+        promise.catchException(reason::set);
+        
+        assertTrue(promise.cancel());
+        assertInstanceOf(CancellationException.class, reason.get());
+        
+    }
+    
+    @Test
+    void cancel_RunsCallbacks_WhenCancelMetricsHookThrows() {
+        
+        val handled = new AtomicReference<Throwable>();
+        val reason = new AtomicReference<Throwable>();
+        val promise = PromiseRuntime.defaults()
+                .withExceptionHandler(handled::set)
+                .withMetrics(new PromiseMetrics() {
+                    @Override
+                    public void onCancel() { throw new IllegalStateException("metrics"); }
+                })
+                .call(SettleablePromise<String>::new);
+        
+        promise.catchException(reason::set);
+        promise.cancel();
+        
+        assertInstanceOf(CancellationException.class, reason.get());
+        assertEquals("metrics", handled.get().getMessage());
+        
+    }
+    
+    @Test
+    @SneakyThrows
+    void join_Returns_WhenEarlierCompletionThrows() {
+        
+        val handled = new AtomicReference<Throwable>();
+        val promise = PromiseRuntime.defaults()
+                .withExceptionHandler(handled::set)
+                .call(SettleablePromise<String>::new);
+        
+        new Subscription<String>() {
+            @Override
+            void onResolve(String result) { throw new IllegalStateException("subscription"); }
+            
+            @Override
+            void onReject(@NotNull Throwable reason) { }
+        }.subscribe(promise);
+        
+        val joined = Executors.newSingleThreadExecutor().submit(promise::join);
+        
+        promise.resolve("resolved");
+        
+        assertEquals("resolved", joined.get(10, TimeUnit.SECONDS));
+        assertEquals("subscription", handled.get().getMessage());
+        
+    }
+    
+    @Test
+    void resolve_RunsQueuedCallbacks_WhenCallbackThrowsError() {
+        
+        val first = new SettleablePromise<String>();
+        val second = new SettleablePromise<String>();
+        val ran = new AtomicBoolean();
+        
+        second.then(() -> ran.set(true));
+        first.then(() -> {
+            second.resolve("second");
+            throw new AssertionError("error");
+        });
+        
+        assertThrows(AssertionError.class, () -> first.resolve("first"));
+        assertTrue(ran.get());
+        
+        val third = new SettleablePromise<String>();
+        val result = new AtomicReference<String>();
+        third.then(result::set);
+        third.resolve("third");
+        
+        assertEquals("third", result.get());
+        
+    }
+    
+    @Test
+    void cancel_ReturnsFalse_WhenAlreadySettled() {
+        
+        val promise = new SettleablePromise<String>();
+        promise.resolve("resolved");
+        
+        assertFalse(promise.cancel());
+        assertEquals(Promise.State.RESOLVED, promise.getState());
+        
+    }
+    
+    @Test
+    void resolve_IsIgnored_WhenCancelled() {
+        
+        val promise = new SettleablePromise<String>();
+        promise.cancel();
+        
+        promise.resolve("resolved");
+        
+        assertEquals(Promise.State.CANCELLED, promise.getState());
+        
+    }
+    
+    @Test
+    @SuppressWarnings("removal")
+    void rejectNoCheck_RejectsPromise_WhenPending() {
+        
+        val reason = new IllegalStateException("rejected");
+        val promise = new SettleablePromise<String>();
+        
+        promise.checkNotPending();
+        promise.rejectNoCheck(reason);
+        
+        assertEquals(Promise.State.REJECTED, promise.getState());
+        assertThrows(IllegalStateException.class, promise::checkNotPending);
+        assertEquals(Promise.State.REJECTED, promise.state);
+        assertSame(reason, promise.reason);
+        
+    }
+    
+    @Test
+    @SuppressWarnings("removal")
+    void deprecatedStateFields_MirrorOutcome_WhenSettled() {
+        
+        val promise = new SettleablePromise<String>();
+        assertEquals(Promise.State.PENDING, promise.state);
+        
+        promise.then((result) -> assertEquals(Promise.State.RESOLVED, promise.state));
+        promise.resolve("resolved");
+        
+        assertEquals("resolved", promise.result);
+        assertNull(promise.reason);
+        
+        val cancelled = new SettleablePromise<String>();
+        cancelled.cancel();
+        
+        assertEquals(Promise.State.CANCELLED, cancelled.state);
+        assertInstanceOf(CancellationException.class, cancelled.reason);
+        
+    }
+    
+    @Test
+    void blockingThreadPool_RunsBlockingExecutorsConcurrently() {
+        
+        val executors = 200;
+        val started = new CountDownLatch(executors);
+        val promises = new ArrayList<Promise<?>>();
+        
+        for (int i = 0; i < executors; i++) {
+            promises.add(new SettleablePromise<String>((completablePromise) -> {
+                // Only returns once every executor is blocked at the same time
+                started.countDown();
+                started.await();
+                completablePromise.resolve("resolved");
+            }, SettleablePromise.blockingThreadPool()));
+        }
+        
+        assertTrue(Promise.whenAll(promises).await(Duration.ofSeconds(30)));
+        
+    }
+    
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionOrderTest {
+    
+    @Test
+    void completionOrder_ReturnsPromises_InTheOrderTheySettle() {
+        
+        val promise1 = new SettleablePromise<String>();
+        val promise2 = new SettleablePromise<String>();
+        val promise3 = new SettleablePromise<String>();
+        val completionOrder = Promise.inCompletionOrder(Arrays.asList(promise1, promise2, promise3));
+        
+        assertNull(completionOrder.poll());
+        
+        promise3.resolve("3");
+        promise1.reject("1");
+        promise2.resolve("2");
+        
+        assertSame(promise3, completionOrder.next());
+        assertSame(promise1, completionOrder.next());
+        assertSame(promise2, completionOrder.next());
+        assertFalse(completionOrder.hasNext());
+        assertThrows(NoSuchElementException.class, completionOrder::next);
+        
+    }
+    
+    @Test
+    void completionOrder_WaitsForPromises_SettledOnOtherThreads() throws InterruptedException {
+        
+        val executor = Executors.newFixedThreadPool(4);
+        val promises = new ArrayList<Promise<Integer>>();
+        
+        try {
+            for (int i = 0; i < 1000; i++) {
+                val promise = new SettleablePromise<Integer>();
+                val result = i;
+                executor.execute(() -> promise.resolve(result));
+                promises.add(promise);
+            }
+            
+            val completionOrder = Promise.inCompletionOrder(promises);
+            int sum = 0;
+            while (completionOrder.hasNext()) {
+                val promise = completionOrder.poll(10, TimeUnit.SECONDS);
+                assertTrue(promise != null);
+                sum += promise.getNow(null);
+            }
+            
+            assertEquals(999 * 1000 / 2, sum);
+        } finally {
+            executor.shutdown();
+        }
+        
+    }
+    
+    @Test
+    void completionOrderPromise_CallsSink_InTheOrderPromisesSettle() {
+        
+        val promise1 = new SettleablePromise<String>();
+        val promise2 = new SettleablePromise<String>();
+        val results = new ArrayList<String>();
+        val promise = Promise.inCompletionOrder(Arrays.asList(promise1, promise2, Promise.resolve("0")),
+                (p) -> results.add(p.getNow(null)));
+        
+        promise2.resolve("2");
+        assertEquals(Promise.State.PENDING, promise.getState());
+        
+        promise1.resolve("1");
+        
+        assertEquals(Arrays.asList("0", "2", "1"), results);
+        assertEquals(Promise.State.RESOLVED, promise.getState());
+        
+    }
+    
+    @Test
+    void completionOrderPromise_Resolves_WhenNoPromises() {
+        
+        assertEquals(Promise.State.RESOLVED,
+                Promise.inCompletionOrder(Collections.<Promise<String>>emptyList(), (p) -> { }).getState());
+        
+    }
+    
+}
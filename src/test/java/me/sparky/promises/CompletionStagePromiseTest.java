@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompletionStagePromiseTest {
+    
+    @Test
+    void resolves_WhenFutureCompletes() {
+        
+        val future = new CompletableFuture<String>();
+        val promise = Promise.fromFuture(future);
+        
+        assertEquals(Promise.State.PENDING, promise.getState());
+        
+        future.complete("completed");
+        
+        assertEquals(Promise.State.RESOLVED, promise.getState());
+        assertEquals("completed", promise.getNow(null));
+        
+    }
+    
+    @Test
+    void rejectsWithCause_WhenDependentFutureFails() {
+        
+        val future = new CompletableFuture<String>();
+        val reason = new IllegalStateException("failed");
+        val promise = Promise.fromFuture(future.thenApply(String::trim));
+        
+        future.completeExceptionally(reason);
+        
+        assertEquals(Promise.State.REJECTED, promise.getState());
+        promise.catchException((throwable) -> assertSame(reason, throwable));
+        
+    }
+    
+    @Test
+    void toCompletableFuture_Completes_WhenPromiseResolves() {
+        
+        val promise = new SettleablePromise<String>();
+        val future = promise.toCompletableFuture();
+        
+        assertFalse(future.isDone());
+        
+        promise.resolve("resolved");
+        
+        assertEquals("resolved", future.getNow(null));
+        
+    }
+    
+    @Test
+    void toCompletableFuture_CompletesExceptionally_WhenPromiseRejects() {
+        
+        val reason = new IllegalStateException("rejected");
+        val future = Promise.<String>reject(reason).toCompletableFuture();
+        
+        val exception = assertThrows(ExecutionException.class, future::get);
+        assertSame(reason, exception.getCause());
+        
+    }
+    
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class FlatMapPromiseTest {
+    
+    @Test
+    void resolvesToInnerValue_WhenInnerResolves() {
+        
+        val inner = new SettleablePromise<Integer>();
+        val flatMapPromise = Promise.resolve(4).flatMap((value) -> inner);
+        
+        assertEquals(Promise.State.PENDING, flatMapPromise.getState());
+        
+        inner.resolve(8);
+        
+        assertEquals(Promise.State.RESOLVED, flatMapPromise.getState());
+        assertEquals(8, flatMapPromise.getNow(null));
+        
+    }
+    
+    @Test
+    void unwrapsImmediately_WhenInnerIsResolved() {
+        
+        val flatMapPromise = Promise.resolve(4).flatMap((value) -> Promise.resolve(value + 4));
+        
+        assertEquals(Promise.State.RESOLVED, flatMapPromise.getState());
+        assertEquals(8, flatMapPromise.getNow(null));
+        
+    }
+    
+    @Test
+    void rejects_WhenInnerRejects() {
+        
+        val flatMapPromise = Promise.resolve(4).flatMap((value) -> Promise.<Integer>reject("rejected"));
+        
+        flatMapPromise
+                .then(() -> fail("Promise is rejected, cannot be in resolved state"))
+                .catchException((reason) -> assertEquals("rejected", reason.getMessage()));
+        
+        assertEquals(Promise.State.REJECTED, flatMapPromise.getState());
+        
+    }
+    
+    @Test
+    void rejects_WhenFunctionFails() {
+        
+        val flatMapPromise = Promise.resolve(4).<Integer>flatMap((value) -> {
+            throw new RuntimeException("fail");
+        });
+        
+        flatMapPromise
+                .catchException((reason) -> assertEquals("fail", reason.getMessage()));
+        
+        assertEquals(Promise.State.REJECTED, flatMapPromise.getState());
+        
+    }
+    
+    @Test
+    void rejects_WhenFromRejects() {
+        
+        val flatMapPromise = Promise.<Integer>reject("rejected").flatMap(Promise::resolve);
+        
+        assertEquals(Promise.State.REJECTED, flatMapPromise.getState());
+        
+    }
+    
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.sparky.promises;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForeignPromiseTest {
+    
+    SettleablePromise<String> delegate = new SettleablePromise<>();
+    Promise<String> promise = new ForeignPromise<>(delegate);
+    
+    @Test
+    void awaitWithTimeout_ReturnsFalse_WhenStillPending() {
+        
+        assertFalse(promise.await(Duration.ofMillis(10)));
+        
+    }
+    
+    @Test
+    void awaitWithTimeout_ReturnsTrue_WhenSettledWhileWaiting() {
+        
+        val executor = Executors.newSingleThreadScheduledExecutor();
+        executor.schedule(() -> delegate.resolve("resolved"), 10, TimeUnit.MILLISECONDS);
+        
+        assertTrue(promise.await(Duration.ofSeconds(10)));
+        executor.shutdown();
+        
+    }
+    
+    @Test
+    void join_ReturnsResult_WhenResolved() {
+        
+        delegate.resolve("resolved");
+        
+        assertEquals("resolved", promise.join());
+        
+    }
+    
+    @Test
+    void join_ThrowsWithReason_WhenRejected() {
+        
+        val reason = new IllegalStateException("rejected");
+        delegate.reject(reason);
+        
+        val thrown = assertThrows(PromiseRejectionException.class, promise::join);
+        assertSame(reason, thrown.getCause());
+        
+    }
+    
+    @Test
+    void getNow_ReturnsDefault_WhenPending() {
+        
+        assertEquals("pending", promise.getNow("pending"));
+        
+    }
+    
+    @Test
+    void getNowAndTimedAwait_DoNotSubscribe_WhenPolled() {
+        
+        val callbacks = new AtomicInteger();
+        promise = new ForeignPromise<String>(delegate) {
+            @Override
+            @NotNull
+            public Promise<String> then(@NotNull Callback<? super String> fulfil) {
+                
+                callbacks.incrementAndGet();
+                return super.then(fulfil);
+                
+            }
+        };
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals("pending", promise.getNow("pending"));
+            assertFalse(promise.await(Duration.ZERO));
+        }
+        
+        assertEquals(0, callbacks.get());
+        
+    }
+    
+    @Test
+    void getNow_ThrowsWithCancellation_WhenCancelled() {
+        
+        delegate.cancel();
+        
+        val thrown = assertThrows(PromiseRejectionException.class, () -> promise.getNow("pending"));
+        assertInstanceOf(CancellationException.class, thrown.getCause());
+        
+    }
+    
+    /**
+     * A promise that only implements the abstract methods of the interface.
+     */
+    private static class ForeignPromise<T> implements Promise<T> {
+        
+        private final Promise<T> delegate;
+        
+        private ForeignPromise(@NotNull Promise<T> delegate) { this.delegate = delegate; }
+        
+        @Override
+        @NotNull
+        public Promise<T> then(@NotNull Callback<? super T> fulfil,
+                               @NotNull Callback<@NotNull Throwable> reject) {
+            
+            delegate.then(fulfil, reject);
+            return this;
+            
+        }
+        
+        @Override
+        @NotNull
+        public Promise<T> then(@NotNull Callback<? super T> fulfil) {
+            
+            delegate.then(fulfil);
+            return this;
+            
+        }
+        
+        @Override
+        @NotNull
+        public Promise<T> then(@NotNull Runnable fulfil) {
+            
+            delegate.then(fulfil);
+            return this;
+            
+        }
+        
+        @Override
+        @NotNull
+        public Promise<T> then(@NotNull Runnable fulfil, @NotNull Callback<@NotNull Throwable> reject) {
+            
+            delegate.then(fulfil, reject);
+            return this;
+            
+        }
+        
+        @Override
+        @NotNull
+        public Promise<T> catchException(@NotNull Callback<@NotNull Throwable> reject) {
+            
+            delegate.catchException(reject);
+            return this;
+            
+        }
+        
+        @Override
+        @NotNull
+        public Promise<T> after(@NotNull Runnable runnable) {
+            
+            delegate.after(runnable);
+            return this;
+            
+        }
+        
+        @Override
+        @NotNull
+        public State getState() { return delegate.getState(); }
+        
+        @Override
+        public void await() { delegate.await(); }
+        
+    }
+    
+}
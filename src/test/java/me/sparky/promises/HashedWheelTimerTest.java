@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTest {
+    
+    @SneakyThrows
+    @Test
+    void schedule_RunsTasksInDeadlineOrder() {
+        
+        val timer = new HashedWheelTimer(Duration.ofMillis(1), 8, "test-timer");
+        val order = new CopyOnWriteArrayList<Integer>();
+        val done = new CountDownLatch(3);
+        
+        timer.schedule(() -> { order.add(3); done.countDown(); }, TimeUnit.MILLISECONDS.toNanos(60));
+        timer.schedule(() -> { order.add(1); done.countDown(); }, TimeUnit.MILLISECONDS.toNanos(5));
+        timer.schedule(() -> { order.add(2); done.countDown(); }, TimeUnit.MILLISECONDS.toNanos(30));
+        
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), order);
+        
+    }
+    
+    @SneakyThrows
+    @Test
+    void schedule_DoesNotRunTaskEarly() {
+        
+        val timer = new HashedWheelTimer(Duration.ofMillis(1), 8, "test-timer");
+        val ran = new CountDownLatch(1);
+        val start = System.nanoTime();
+        val elapsed = new long[1];
+        
+        timer.schedule(() -> {
+            elapsed[0] = System.nanoTime() - start;
+            ran.countDown();
+        }, TimeUnit.MILLISECONDS.toNanos(50));
+        
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+        assertTrue(elapsed[0] >= TimeUnit.MILLISECONDS.toNanos(50));
+        
+    }
+    
+    @SneakyThrows
+    @Test
+    void cancel_StopsTaskFromRunning() {
+        
+        val timer = new HashedWheelTimer(Duration.ofMillis(1), 8, "test-timer");
+        val runCount = new AtomicInteger(0);
+        val done = new CountDownLatch(1);
+        
+        val timeout = timer.schedule(runCount::incrementAndGet, TimeUnit.MILLISECONDS.toNanos(20));
+        timer.schedule(done::countDown, TimeUnit.MILLISECONDS.toNanos(40));
+        
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, runCount.get());
+        
+    }
+    
+    
+    @SneakyThrows
+    @Test
+    void schedule_KeepsRunningTasks_WhenTaskThrowsError() {
+        
+        val timer = new HashedWheelTimer(Duration.ofMillis(1), 8, "test-timer");
+        val handled = new CountDownLatch(1);
+        val ran = new CountDownLatch(1);
+        
+        PromiseRuntime.defaults()
+                .withExceptionHandler((e) -> handled.countDown())
+                .run(() -> timer.schedule(() -> { throw new AssertionError("error"); }, 0L));
+        
+        assertTrue(handled.await(10, TimeUnit.SECONDS));
+        
+        timer.schedule(ran::countDown, 0L);
+        
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+        
+    }
+    
+}
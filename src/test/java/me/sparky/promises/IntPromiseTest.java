@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntPromiseTest {
+    
+    @Test
+    void thenInt_IsCalledWithResult_WhenResolved() {
+        
+        val promise = new IntPromise();
+        val result = new int[1];
+        
+        promise.thenInt((r) -> result[0] = r);
+        promise.resolve(42);
+        
+        assertEquals(42, result[0]);
+        assertEquals(42, promise.getNowInt(0));
+        assertEquals(42, promise.getNow(null));
+        
+    }
+    
+    @Test
+    void tryResolve_OnlySettlesOnce() {
+        
+        val promise = new IntPromise();
+        
+        assertTrue(promise.tryResolve(1));
+        assertFalse(promise.tryResolve(2));
+        assertThrows(IllegalStateException.class, () -> promise.resolve(3));
+        
+        assertEquals(1, promise.joinInt());
+        
+    }
+    
+    @Test
+    void primitiveTransforms_ChainWithoutBoxing() {
+        
+        val promise = new IntPromise();
+        val transformed = promise
+                .transformInt((r) -> r + 1)
+                .transformIntToLong((r) -> r * 10_000_000_000L)
+                .transformLongToDouble((r) -> r / 4.0)
+                .transformDoubleToObj((r) -> "result " + r);
+        
+        promise.resolve(1);
+        
+        assertEquals("result 5.0E9", transformed.getNow(null));
+        
+    }
+    
+    @Test
+    void transformToInt_TransformsBoxedPromise() {
+        
+        assertEquals(5, Promise.resolve("hello").transformToInt(String::length).getNowInt(0));
+        
+    }
+    
+    @Test
+    void boxedApi_ReadsResult() {
+        
+        val promise = IntPromise.resolved(7);
+        
+        assertEquals(14, promise.transform((r) -> r * 2).getNow(null));
+        assertEquals(7, promise.toCompletableFuture().join());
+        
+    }
+    
+    @Test
+    void transformInt_IsRejected_WhenTransformThrows() {
+        
+        val reason = new IllegalStateException();
+        val reasonRef = new Throwable[1];
+        
+        IntPromise.resolved(1)
+                .transformInt((r) -> { throw reason; })
+                .catchException((r) -> reasonRef[0] = r);
+        
+        assertSame(reason, reasonRef[0]);
+        
+    }
+    
+    @Test
+    void cancel_CancelsTransformedPromise() {
+        
+        val promise = new IntPromise();
+        
+        assertTrue(promise.transformIntToLong((r) -> r).cancel());
+        
+        assertEquals(Promise.State.CANCELLED, promise.getState());
+        
+    }
+    
+    @Test
+    void transformIntToObj_ResolvesAndCancelsLikeTransform() {
+        
+        val resolved = new IntPromise();
+        val transformed = resolved.transformIntToObj((r) -> "result " + r);
+        resolved.resolve(1);
+        
+        assertEquals("result 1", transformed.getNow(null));
+        
+        val cancelled = new IntPromise();
+        
+        assertTrue(cancelled.transformIntToObj((r) -> "result " + r).cancel());
+        assertEquals(Promise.State.CANCELLED, cancelled.getState());
+        
+    }
+    
+    @Test
+    void transformLongAndDoubleToObj_ResolveAndCancelLikeTransform() {
+        
+        val resolvedLong = new LongPromise();
+        val transformedLong = resolvedLong.transformLongToObj((r) -> "result " + r);
+        resolvedLong.resolve(1L);
+        
+        val resolvedDouble = new DoublePromise();
+        val transformedDouble = resolvedDouble.transformDoubleToObj((r) -> "result " + r);
+        resolvedDouble.resolve(0.5);
+        
+        assertEquals("result 1", transformedLong.getNow(null));
+        assertEquals("result 0.5", transformedDouble.getNow(null));
+        
+        val cancelledLong = new LongPromise();
+        val cancelledDouble = new DoublePromise();
+        
+        assertTrue(cancelledLong.transformLongToObj((r) -> "result " + r).cancel());
+        assertTrue(cancelledDouble.transformDoubleToObj((r) -> "result " + r).cancel());
+        assertEquals(Promise.State.CANCELLED, cancelledLong.getState());
+        assertEquals(Promise.State.CANCELLED, cancelledDouble.getState());
+        
+    }
+    
+    @Test
+    void tryResolve_RejectsEveryPrimitiveType_WhenBoxedResultIsNull() {
+        
+        for (PrimitivePromise<?> promise : new PrimitivePromise<?>[] {new IntPromise(), new LongPromise(), new DoublePromise()}) {
+            
+            assertTrue(promise.tryResolve(null));
+            assertEquals(Promise.State.REJECTED, promise.getState());
+            assertTrue(promise.reason() instanceof NullPointerException);
+            assertThrows(PromiseRejectionException.class, () -> promise.getNow(null));
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyPromiseTest {
+    
+    AtomicInteger calls = new AtomicInteger();
+    
+    @Test
+    void lazy_DoesNotStart_UntilSomethingIsAttached() {
+        
+        val promise = Promise.lazy(() -> Promise.resolve(calls.incrementAndGet()));
+        
+        assertEquals(Promise.State.PENDING, promise.getState());
+        assertEquals(-1, promise.getNow(-1));
+        assertEquals(0, calls.get());
+        
+        val result = new int[1];
+        promise.then((r) -> result[0] = r);
+        
+        assertEquals(1, result[0]);
+        assertEquals(1, calls.get());
+        
+    }
+    
+    @Test
+    void lazy_StartsOnce_ForEverySubscriber() {
+        
+        val promise = Promise.lazy(() -> Promise.resolve(calls.incrementAndGet()));
+        
+        assertEquals(2, promise.transform((r) -> r * 2).getNow(null));
+        assertEquals(1, promise.join());
+        assertFalse(promise.start());
+        assertEquals(1, calls.get());
+        
+    }
+    
+    @Test
+    void start_RunsExecutor_WhenCalled() {
+        
+        val promise = new LazyPromise<Integer>((p) -> p.resolve(calls.incrementAndGet()), Runnable::run);
+        
+        assertEquals(0, calls.get());
+        assertTrue(promise.start());
+        
+        assertEquals(1, promise.getNow(null));
+        
+    }
+    
+    @Test
+    void cancel_PreventsStart_WhenNotStarted() {
+        
+        val promise = new LazyPromise<Integer>((p) -> p.resolve(calls.incrementAndGet()), Runnable::run);
+        
+        assertTrue(promise.cancel());
+        assertFalse(promise.start());
+        
+        promise.then((r) -> { });
+        
+        assertEquals(0, calls.get());
+        assertEquals(Promise.State.CANCELLED, promise.getState());
+        
+    }
+    
+    @Test
+    void cancel_CancelsSuppliedPromise_WhenStarted() {
+        
+        val source = new SettleablePromise<Integer>();
+        val promise = Promise.lazy(() -> source);
+        
+        promise.start();
+        promise.cancel();
+        
+        assertEquals(Promise.State.CANCELLED, source.getState());
+        
+    }
+    
+    @Test
+    void lazy_IsRejected_WhenSupplierThrows() {
+        
+        val reason = new IllegalStateException();
+        val reasonRef = new Throwable[1];
+        
+        Promise.<Integer>lazy(() -> { throw reason; }).catchException((r) -> reasonRef[0] = r);
+        
+        assertEquals(reason, reasonRef[0]);
+        
+    }
+    
+    @Test
+    void then_RejectsPromise_WhenThreadPoolRejectsWork() {
+        
+        val reason = new AtomicReference<Throwable>();
+        val promise = new LazyPromise<String>((p) -> p.resolve("resolved"), (task) -> {
+            throw new RejectedExecutionException("shut down");
+        });
+        
+        promise.catchException(reason::set);
+        
+        assertEquals(Promise.State.REJECTED, promise.getState());
+        assertInstanceOf(RejectedExecutionException.class, reason.get());
+        
+    }
+    
+}
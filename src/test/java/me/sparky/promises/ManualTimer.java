@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timer for tests that only runs its tasks when it is advanced by hand.
+ */
+final class ManualTimer implements PromiseTimer {
+    
+    private final List<Task> tasks = new ArrayList<>();
+    private long now;
+    
+    @Override
+    @NotNull
+    public synchronized Scheduled schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        
+        Task scheduled = new Task(task, now + Math.max(0L, unit.toNanos(delay)));
+        tasks.add(scheduled);
+        return scheduled;
+        
+    }
+    
+    /**
+     * Moves the time forward and runs the tasks that are due, on the calling
+     * thread.
+     *
+     * @param duration How far to move the time
+     */
+    void advance(@NotNull Duration duration) {
+        
+        List<Task> due = new ArrayList<>();
+        
+        synchronized (this) {
+            now += duration.toNanos();
+            tasks.removeIf((task) -> {
+                if (task.deadline > now) return false;
+                due.add(task);
+                return true;
+            });
+        }
+        
+        for (Task task : due)
+            if (task.cancel()) task.task.run();
+        
+    }
+    
+    /**
+     * Gets the number of tasks that have not run or been cancelled.
+     *
+     * @return The number of pending tasks
+     */
+    synchronized int pending() {
+        
+        return (int) tasks.stream().filter((task) -> !task.done).count();
+        
+    }
+    
+    private static final class Task implements Scheduled {
+        
+        private final Runnable task;
+        private final long deadline;
+        private boolean done;
+        
+        private Task(@NotNull Runnable task, long deadline) {
+            
+            this.task = task;
+            this.deadline = deadline;
+            
+        }
+        
+        @Override
+        public synchronized boolean cancel() {
+            
+            if (done) return false;
+            done = true;
+            return true;
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapConcurrentPromiseTest {
+    
+    @Test
+    void mapConcurrent_StartsNextItem_WhenOneSettles() {
+        
+        val started = new ArrayList<SettleablePromise<Integer>>();
+        val promise = Promise.mapConcurrent(Arrays.asList(1, 2, 3, 4), (i) -> {
+            val input = new SettleablePromise<Integer>();
+            started.add(input);
+            return input;
+        }, 2);
+        
+        assertEquals(2, started.size());
+        
+        started.get(1).resolve(20);
+        assertEquals(3, started.size());
+        
+        started.get(0).resolve(10);
+        assertEquals(4, started.size());
+        
+        started.get(3).resolve(40);
+        started.get(2).resolve(30);
+        
+        assertEquals(Arrays.asList(10, 20, 30, 40), promise.getNow(null));
+        
+    }
+    
+    @Test
+    void mapConcurrent_ResolvesEmptyList_WhenNoItems() {
+        
+        assertEquals(Collections.emptyList(),
+                Promise.mapConcurrent(Collections.<Integer>emptyList(), Promise::resolve, 4).getNow(null));
+        
+    }
+    
+    @Test
+    void mapConcurrent_MapsSettledPromises_WithoutRecursing() {
+        
+        val items = IntStream.range(0, 100_000).boxed().collect(Collectors.toList());
+        
+        assertEquals(items, Promise.mapConcurrent(items, Promise::resolve, 1).getNow(null));
+        
+    }
+    
+    @Test
+    void mapConcurrent_NeverExceedsParallelism_WhenSettledConcurrently() throws InterruptedException {
+        
+        val executor = Executors.newFixedThreadPool(8);
+        val inFlight = new AtomicInteger();
+        val maxInFlight = new AtomicInteger();
+        val items = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        
+        try {
+            val promise = Promise.mapConcurrent(items, (i) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                val input = new SettleablePromise<Integer>();
+                executor.execute(() -> {
+                    inFlight.decrementAndGet();
+                    input.resolve(i * 2);
+                });
+                return input;
+            }, 4);
+            
+            val latch = new CountDownLatch(1);
+            promise.then(latch::countDown);
+            
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(items.stream().map((i) -> i * 2).collect(Collectors.toList()), promise.getNow(null));
+            assertTrue(maxInFlight.get() <= 4);
+        } finally {
+            executor.shutdown();
+        }
+        
+    }
+    
+    @Test
+    void mapConcurrent_IsRejectedWithEveryFailure_WhenAllDone() {
+        
+        val reason1 = new IllegalStateException();
+        val reason2 = new IllegalArgumentException();
+        val reasonRef = new Throwable[1];
+        val started = new ArrayList<SettleablePromise<Integer>>();
+        val promise = Promise.mapConcurrent(Arrays.asList(1, 2, 3), (i) -> {
+            val input = new SettleablePromise<Integer>();
+            started.add(input);
+            return input;
+        }, 3);
+        
+        promise.catchException((r) -> reasonRef[0] = r);
+        
+        started.get(2).reject(reason2);
+        started.get(0).reject(reason1);
+        assertEquals(Promise.State.PENDING, promise.getState());
+        
+        started.get(1).resolve(2);
+        
+        assertInstanceOf(AggregateRejectionException.class, reasonRef[0]);
+        assertEquals(Arrays.asList(reason1, reason2),
+                ((AggregateRejectionException) reasonRef[0]).getReasons());
+        
+    }
+    
+    @Test
+    void mapConcurrent_CancelsPendingAndStopsMapping_WhenAbortingOnFailure() {
+        
+        val reason = new IllegalStateException();
+        val reasonRef = new Throwable[1];
+        val started = new ArrayList<SettleablePromise<Integer>>();
+        val promise = Promise.mapConcurrent(Arrays.asList(1, 2, 3, 4), (i) -> {
+            val input = new SettleablePromise<Integer>();
+            started.add(input);
+            return input;
+        }, 2, true);
+        
+        promise.catchException((r) -> reasonRef[0] = r);
+        
+        started.get(1).reject(reason);
+        
+        assertSame(reason, reasonRef[0]);
+        assertEquals(Promise.State.CANCELLED, started.get(0).getState());
+        assertEquals(2, started.size());
+        
+    }
+    
+    @Test
+    void mapConcurrent_CancelsPending_WhenCancelled() {
+        
+        val started = new ArrayList<SettleablePromise<Integer>>();
+        val promise = Promise.mapConcurrent(Arrays.asList(1, 2, 3), (i) -> {
+            val input = new SettleablePromise<Integer>();
+            started.add(input);
+            return input;
+        }, 2);
+        
+        assertTrue(promise.cancel());
+        
+        assertEquals(Promise.State.CANCELLED, started.get(0).getState());
+        assertEquals(Promise.State.CANCELLED, started.get(1).getState());
+        assertEquals(2, started.size());
+        
+    }
+    
+    @Test
+    void mapConcurrent_IsRejected_WhenMapperThrows() {
+        
+        val reason = new IllegalStateException();
+        val reasonRef = new Throwable[1];
+        
+        Promise.<Integer, Integer>mapConcurrent(Arrays.asList(1, 2), (i) -> { throw reason; }, 1, true)
+                .catchException((r) -> reasonRef[0] = r);
+        
+        assertSame(reason, reasonRef[0]);
+        
+    }
+    
+    @Test
+    void mapConcurrent_ThrowsIllegalArgumentException_WhenParallelismIsNotPositive() {
+        
+        assertThrows(IllegalArgumentException.class,
+                () -> Promise.mapConcurrent(Collections.<Integer>emptyList(), Promise::resolve, 0));
+        
+    }
+    
+}
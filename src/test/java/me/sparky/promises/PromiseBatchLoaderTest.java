@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromiseBatchLoaderTest {
+    
+    PromiseRuntime runtime = PromiseRuntime.defaults().withExecutor(Runnable::run);
+    List<Set<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+    
+    Function<Set<Integer>, Promise<Map<Integer, String>>> batchFunction = (keys) -> {
+        batches.add(keys);
+        val values = new HashMap<Integer, String>();
+        for (Integer key : keys)
+            if (key >= 0) values.put(key, "v" + key);
+        return Promise.resolve(values);
+    };
+    
+    @Test
+    void load_CoalescesAndDeduplicatesKeys_IntoOneBatch() {
+        
+        val loader = new PromiseBatchLoader<>(batchFunction, Duration.ofMinutes(1), 100, runtime);
+        
+        val promise1 = loader.load(1);
+        val promise2 = loader.load(2);
+        
+        assertSame(promise1, loader.load(1));
+        assertEquals(0, batches.size());
+        
+        loader.dispatch();
+        
+        assertEquals(Collections.singletonList(Set.of(1, 2)), batches);
+        assertEquals("v1", promise1.getNow(null));
+        assertEquals("v2", promise2.getNow(null));
+        
+    }
+    
+    @Test
+    void load_DispatchesBatch_WhenMaxBatchSizeIsReached() {
+        
+        val loader = new PromiseBatchLoader<>(batchFunction, Duration.ofMinutes(1), 2, runtime);
+        
+        loader.load(1);
+        loader.load(2);
+        val promise3 = loader.load(3);
+        
+        assertEquals(Collections.singletonList(Set.of(1, 2)), batches);
+        assertEquals(Promise.State.PENDING, promise3.getState());
+        
+    }
+    
+    @Test
+    void load_DispatchesBatch_WhenWindowHasPassed() {
+        
+        val timer = new ManualTimer();
+        val loader = new PromiseBatchLoader<>(batchFunction, Duration.ofMillis(20), 100, runtime.withTimer(timer));
+        
+        val promise1 = loader.load(1);
+        val promise2 = loader.load(2);
+        
+        timer.advance(Duration.ofMillis(19));
+        assertEquals(0, batches.size());
+        
+        timer.advance(Duration.ofMillis(1));
+        
+        assertEquals(Collections.singletonList(Set.of(1, 2)), batches);
+        assertEquals("v1", promise1.getNow(null));
+        assertEquals("v2", promise2.getNow(null));
+        
+    }
+    
+    @Test
+    void load_ResolvesNull_WhenKeyIsMissing() {
+        
+        val loader = new PromiseBatchLoader<>(batchFunction, Duration.ofMinutes(1), 100, runtime);
+        
+        val promise = loader.load(-1);
+        loader.dispatch();
+        
+        assertEquals(Promise.State.RESOLVED, promise.getState());
+        assertNull(promise.getNow("missing"));
+        
+    }
+    
+    @Test
+    void load_RejectsEveryKey_WhenBatchFunctionIsRejected() {
+        
+        val reason = new IllegalStateException();
+        val loader = new PromiseBatchLoader<Integer, String>((keys) -> Promise.reject(reason),
+                Duration.ofMinutes(1), 100, runtime);
+        val reasons = new ArrayList<Throwable>();
+        
+        loader.load(1).catchException(reasons::add);
+        loader.load(2).catchException(reasons::add);
+        loader.dispatch();
+        
+        assertEquals(List.of(reason, reason), reasons);
+        
+    }
+    
+    @Test
+    void load_LoadsEveryKeyOnce_WhenLoadedConcurrently() throws InterruptedException {
+        
+        val loader = new PromiseBatchLoader<>(batchFunction, Duration.ofMillis(1), 16, runtime);
+        val threads = new ArrayList<Thread>();
+        val latch = new CountDownLatch(4 * 1000);
+        
+        for (int t = 0; t < 4; t++) {
+            val offset = t * 1000;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    val key = offset + i;
+                    loader.load(key).then((v) -> {
+                        if (("v" + key).equals(v)) latch.countDown();
+                    });
+                }
+            }));
+        }
+        
+        threads.forEach(Thread::start);
+        
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(4000, batches.stream().mapToInt(Set::size).sum());
+        assertTrue(batches.stream().allMatch((batch) -> batch.size() <= 16));
+        
+    }
+    
+}
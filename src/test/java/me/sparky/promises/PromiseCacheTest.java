@@ -0,0 +1,182 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PromiseCacheTest {
+    
+    AtomicInteger loads = new AtomicInteger();
+    List<SettleablePromise<String>> pending = new ArrayList<>();
+    
+    Promise<String> load(Integer key) {
+        
+        loads.incrementAndGet();
+        val promise = new SettleablePromise<String>();
+        pending.add(promise);
+        return promise;
+        
+    }
+    
+    @Test
+    void get_SharesPromise_WhileKeyIsLoading() {
+        
+        val cache = new PromiseCache<Integer, String>(this::load, 10);
+        
+        val promise = cache.get(1);
+        assertSame(promise, cache.get(1));
+        
+        pending.get(0).resolve("1");
+        
+        assertEquals("1", cache.get(1).getNow(null));
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        
+    }
+    
+    @Test
+    void get_LoadsAgain_WhenLoadIsRejected() {
+        
+        val cache = new PromiseCache<Integer, String>(this::load, 10);
+        
+        cache.get(1);
+        pending.get(0).reject("failed");
+        
+        assertEquals(0, cache.size());
+        assertNull(cache.getIfPresent(1));
+        
+        cache.get(1);
+        
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().loadFailureCount());
+        
+    }
+    
+    @Test
+    void get_EvictsLeastRecentlyUsed_WhenFull() {
+        
+        val cache = new PromiseCache<Integer, String>((key) -> Promise.resolve("v" + key), 2);
+        
+        cache.get(1);
+        cache.get(2);
+        // Every entry is new, so the sweep clears them all and evicts the first
+        cache.get(3);
+        cache.get(2);
+        cache.get(4);
+        
+        assertEquals(2, cache.size());
+        assertNull(cache.getIfPresent(1));
+        assertNotNull(cache.getIfPresent(2));
+        assertNull(cache.getIfPresent(3));
+        assertNotNull(cache.getIfPresent(4));
+        assertEquals(2, cache.stats().evictionCount());
+        
+    }
+    
+    @Test
+    void get_KeepsNewEntry_WhenItsInsertTriggersEviction() {
+        
+        val cache = new PromiseCache<Integer, String>((key) -> Promise.resolve("v" + key), 1);
+        
+        cache.get(1);
+        cache.get(2);
+        
+        assertEquals(1, cache.size());
+        assertNull(cache.getIfPresent(1));
+        assertNotNull(cache.getIfPresent(2));
+        
+    }
+    
+    @Test
+    void get_KeepsSharingLoad_WhenCacheIsFull() {
+        
+        val cache = new PromiseCache<Integer, String>((key) -> key == 1 ? load(key) : Promise.resolve("v" + key), 1);
+        
+        val loading = cache.get(1);
+        cache.get(2);
+        
+        assertSame(loading, cache.get(1));
+        assertEquals(1, loads.get());
+        
+        pending.get(0).resolve("v1");
+        cache.get(3);
+        
+        assertEquals(1, cache.size());
+        assertNotNull(cache.getIfPresent(3));
+        
+    }
+    
+    @Test
+    void get_LoadsAgain_WhenValueHasExpired() throws InterruptedException {
+        
+        val cache = new PromiseCache<Integer, String>((key) -> Promise.resolve("v" + loads.incrementAndGet()), 10,
+                Duration.ofMillis(10), null);
+        
+        assertEquals("v1", cache.get(1).getNow(null));
+        
+        Thread.sleep(50);
+        
+        assertEquals("v2", cache.get(1).getNow(null));
+        
+    }
+    
+    @Test
+    void get_ReturnsStaleValue_WhileRefreshing() throws InterruptedException {
+        
+        val cache = new PromiseCache<Integer, String>(this::load, 10, null, Duration.ofMillis(10));
+        
+        cache.get(1);
+        pending.get(0).resolve("old");
+        
+        Thread.sleep(50);
+        
+        assertEquals("old", cache.get(1).getNow(null));
+        assertEquals("old", cache.get(1).getNow(null));
+        assertEquals(2, loads.get());
+        
+        pending.get(1).resolve("new");
+        
+        assertEquals("new", cache.get(1).getNow(null));
+        
+    }
+    
+    @Test
+    void invalidate_RemovesKey() {
+        
+        val cache = new PromiseCache<Integer, String>((key) -> Promise.resolve("v" + key), 10);
+        
+        cache.get(1);
+        cache.invalidate(1);
+        
+        assertNull(cache.getIfPresent(1));
+        assertEquals(0, cache.size());
+        
+    }
+    
+}
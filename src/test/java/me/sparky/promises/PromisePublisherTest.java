@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromisePublisherTest {
+    
+    @Test
+    void publisher_OnlyTakesPromises_AsTheyAreRequested() {
+        
+        val taken = new AtomicInteger();
+        val subscriber = new RecordingSubscriber<Integer>();
+        
+        PromisePublisher.generate(() -> taken.get() < 5 ? Promise.resolve(taken.incrementAndGet()) : null, 16)
+                .subscribe(subscriber);
+        
+        assertEquals(0, taken.get());
+        
+        subscriber.subscription.request(2);
+        assertEquals(2, taken.get());
+        assertEquals(Arrays.asList(1, 2), subscriber.results);
+        
+        subscriber.subscription.request(10);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), subscriber.results);
+        assertTrue(subscriber.completed);
+        
+    }
+    
+    @Test
+    void publisher_PublishesInOrder_AndBoundsPendingPromises() {
+        
+        val promises = new ArrayList<SettleablePromise<Integer>>();
+        for (int i = 0; i < 4; i++)
+            promises.add(new SettleablePromise<>());
+        
+        val taken = new AtomicInteger();
+        val subscriber = new RecordingSubscriber<Integer>();
+        
+        Promise.publisher(() -> new java.util.Iterator<Promise<Integer>>() {
+            
+            @Override
+            public boolean hasNext() { return taken.get() < promises.size(); }
+            
+            @Override
+            public Promise<Integer> next() { return promises.get(taken.getAndIncrement()); }
+            
+        }, 2).subscribe(subscriber);
+        
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, taken.get());
+        
+        promises.get(1).resolve(1);
+        assertEquals(2, taken.get());
+        assertEquals(List.of(), subscriber.results);
+        
+        promises.get(0).resolve(0);
+        assertEquals(Arrays.asList(0, 1), subscriber.results);
+        assertEquals(4, taken.get());
+        
+        promises.get(2).resolve(2);
+        promises.get(3).resolve(3);
+        
+        assertEquals(Arrays.asList(0, 1, 2, 3), subscriber.results);
+        assertTrue(subscriber.completed);
+        
+    }
+    
+    @Test
+    void publisher_PublishesError_AndCancelsPendingPromises() {
+        
+        val reason = new IllegalStateException();
+        val promise1 = new SettleablePromise<Integer>();
+        val promise2 = new SettleablePromise<Integer>();
+        val subscriber = new RecordingSubscriber<Integer>();
+        
+        Promise.publisher(Arrays.asList(promise1, promise2), 2).subscribe(subscriber);
+        subscriber.subscription.request(2);
+        
+        promise1.reject(reason);
+        
+        assertSame(reason, subscriber.error);
+        assertEquals(Promise.State.CANCELLED, promise2.getState());
+        
+    }
+    
+    @Test
+    void publisher_CancelsPendingPromises_WhenCancelled() {
+        
+        val promise1 = new SettleablePromise<Integer>();
+        val subscriber = new RecordingSubscriber<Integer>();
+        
+        Promise.publisher(List.of(promise1), 1).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        
+        assertEquals(Promise.State.CANCELLED, promise1.getState());
+        
+        promise1.resolve(1);
+        assertEquals(List.of(), subscriber.results);
+        
+    }
+    
+    @Test
+    void publisher_PublishesError_WhenRequestIsNotPositive() {
+        
+        val subscriber = new RecordingSubscriber<Integer>();
+        
+        Promise.publisher(List.of(Promise.resolve(1)), 1).subscribe(subscriber);
+        subscriber.subscription.request(0);
+        
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        
+    }
+    
+    private static final class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+        
+        private final List<T> results = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) { this.subscription = subscription; }
+        
+        @Override
+        public void onNext(T item) { results.add(item); }
+        
+        @Override
+        public void onError(Throwable throwable) { error = throwable; }
+        
+        @Override
+        public void onComplete() { completed = true; }
+        
+    }
+    
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromiseRuntimeTest {
+    
+    @AfterEach
+    void tearDown() {
+        
+        PromiseRuntime.setGlobal(PromiseRuntime.defaults());
+        
+    }
+    
+    @Test
+    void current_IsGlobal_OutsideOfScope() {
+        
+        val runtime = PromiseRuntime.defaults().withExecutor(Runnable::run);
+        
+        assertSame(PromiseRuntime.defaults(), PromiseRuntime.current());
+        
+        PromiseRuntime.setGlobal(runtime);
+        
+        assertSame(runtime, PromiseRuntime.current());
+        
+    }
+    
+    @Test
+    void call_SetsCurrentRuntimeForScope() {
+        
+        val outer = PromiseRuntime.defaults().withExecutor(Runnable::run);
+        val inner = PromiseRuntime.defaults().withExecutor(Runnable::run);
+        
+        outer.run(() -> {
+            assertSame(outer, PromiseRuntime.current());
+            assertSame(inner, inner.call(PromiseRuntime::current));
+            assertSame(outer, PromiseRuntime.current());
+        });
+        
+        assertSame(PromiseRuntime.global(), PromiseRuntime.current());
+        
+    }
+    
+    @Test
+    void thenAsync_UsesExecutorOfCurrentRuntime() {
+        
+        val executions = new AtomicInteger(0);
+        Executor executor = (task) -> {
+            executions.incrementAndGet();
+            task.run();
+        };
+        val ran = new AtomicInteger(0);
+        
+        PromiseRuntime.defaults().withExecutor(executor).run(() -> Promise.resolve("resolved")
+                .thenAsync((value) -> ran.incrementAndGet()));
+        
+        assertEquals(1, executions.get());
+        assertEquals(1, ran.get());
+        
+    }
+    
+    @Test
+    void exceptionHandler_ReceivesCallbackExceptions() {
+        
+        val handled = new AtomicReference<Throwable>();
+        val exception = new IllegalStateException();
+        val promise = PromiseRuntime.defaults()
+                .withExceptionHandler(handled::set)
+                .call(SettleablePromise<String>::new);
+        
+        promise.then((value) -> { throw exception; });
+        
+        // The promise keeps the runtime it was created with
+        promise.resolve("resolved");
+        
+        assertSame(exception, handled.get());
+        
+    }
+    
+    @Test
+    @SneakyThrows
+    void asyncCallbacks_ReportToScopedHandler_WhenRunOnExecutor() {
+        
+        val handled = new LinkedBlockingQueue<Throwable>();
+        val exception = new IllegalStateException();
+        val runtime = PromiseRuntime.defaults().withExceptionHandler(handled::add);
+        val pool = Executors.newSingleThreadExecutor();
+        
+        val pending = runtime.call(SettleablePromise<String>::new);
+        runtime.run(() -> {
+            pending.thenAsync((value) -> { throw exception; }, pool);
+            Promise.resolve("resolved").thenAsync((value) -> { throw exception; }, pool);
+            Promise.<String>reject(new IllegalStateException()).catchExceptionAsync((reason) -> { throw exception; }, pool);
+        });
+        pending.resolve("resolved");
+        
+        for (int i = 0; i < 3; i++) assertSame(exception, handled.poll(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        
+    }
+    
+    @Test
+    @SneakyThrows
+    void hashedWheel_ReportsTaskExceptionsToScopedHandler() {
+        
+        val handled = new LinkedBlockingQueue<Throwable>();
+        val exception = new IllegalStateException();
+        val timer = new HashedWheelTimer(Duration.ofMillis(1), 8, "test-timer");
+        
+        PromiseRuntime.defaults()
+                .withExceptionHandler(handled::add)
+                .run(() -> timer.schedule(() -> { throw exception; }, 1, TimeUnit.MILLISECONDS));
+        
+        assertSame(exception, handled.poll(10, TimeUnit.SECONDS));
+        
+    }
+    
+    @Test
+    void timeout_UsesTimerAndMetricsOfRuntime() {
+        
+        val scheduled = new AtomicReference<Runnable>();
+        val timeouts = new AtomicInteger(0);
+        PromiseTimer timer = (task, delay, unit) -> {
+            scheduled.set(task);
+            return () -> false;
+        };
+        val runtime = PromiseRuntime.defaults()
+                .withTimer(timer)
+                .withExecutor(Runnable::run)
+                .withMetrics(new PromiseMetrics() {
+                    @Override
+                    public void onTimeout() { timeouts.incrementAndGet(); }
+                });
+        
+        val promise = new TimeoutPromise<>(new SettleablePromise<String>(), Duration.ofDays(1), runtime);
+        scheduled.get().run();
+        
+        assertEquals(Promise.State.REJECTED, promise.getState());
+        assertEquals(1, timeouts.get());
+        
+    }
+    
+    @Test
+    void hashedWheel_CreatesWorkingTimer() {
+        
+        val ran = new AtomicInteger(0);
+        val timer = PromiseTimer.hashedWheel(Duration.ofMillis(1), 16, "test-timer");
+        val runtime = PromiseRuntime.defaults().withTimer(timer);
+        
+        timer.schedule(ran::incrementAndGet, 1, TimeUnit.MILLISECONDS);
+        
+        assertTrue(runtime.call(() -> Promise.delay(Duration.ofMillis(20), "delayed")).await(Duration.ofSeconds(10)));
+        assertEquals(1, ran.get());
+        
+    }
+    
+}
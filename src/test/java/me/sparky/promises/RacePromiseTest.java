@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RacePromiseTest {
+    
+    SettleablePromise<String> promise1;
+    SettleablePromise<String> promise2;
+    
+    @BeforeEach
+    void setUp() {
+        
+        promise1 = new SettleablePromise<>();
+        promise2 = new SettleablePromise<>();
+        
+    }
+    
+    @Test
+    void racePromise_Resolves_WhenFirstInputResolves() {
+        
+        val racePromise = Promise.race(promise1, promise2);
+        
+        promise2.resolve("2");
+        promise1.reject("1");
+        
+        assertEquals("2", racePromise.getNow(null));
+        
+    }
+    
+    @Test
+    void racePromise_IsRejected_WhenFirstInputIsRejected() {
+        
+        val reason = new IllegalStateException();
+        val reasonRef = new Throwable[1];
+        val racePromise = Promise.race(promise1, promise2);
+        
+        racePromise.catchException((r) -> reasonRef[0] = r);
+        
+        promise1.reject(reason);
+        promise2.resolve("2");
+        
+        assertSame(reason, reasonRef[0]);
+        
+    }
+    
+    @Test
+    void racePromise_IsSettledByAlreadySettledInput() {
+        
+        assertEquals("resolved", Promise.race(promise1, Promise.resolve("resolved")).getNow(null));
+        
+    }
+    
+    @Test
+    void losingInput_DoesNotRetainRacePromise() {
+        
+        val callbackCount = new AtomicInteger(0);
+        promise2.then(callbackCount::incrementAndGet);
+        
+        WeakReference<Promise<String>> racePromise = raceAndResolve();
+        
+        for (int i = 0; i < 100 && racePromise.get() != null; i++)
+            System.gc();
+        
+        assertNull(racePromise.get());
+        
+        promise2.resolve("2");
+        
+        assertEquals(1, callbackCount.get());
+        
+    }
+    
+    private WeakReference<Promise<String>> raceAndResolve() {
+        
+        val racePromise = Promise.race(promise1, promise2);
+        promise1.resolve("1");
+        
+        return new WeakReference<>(racePromise);
+        
+    }
+    
+}
@@ -22,6 +22,9 @@ import org.junit.jupiter.api.Test;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -56,4 +59,21 @@ class RejectedPromiseTest {
         
     }
     
+    @Test
+    void join_Throws() {
+        
+        val exception = assertThrows(PromiseRejectionException.class, promise::join);
+        
+        assertEquals("reason", exception.getCause().getMessage());
+        
+    }
+    
+    @Test
+    void transform_ReturnsSamePromise() {
+        
+        assertSame(promise, promise.transform(String::length));
+        assertSame(promise, promise.flatMap(Promise::resolve));
+        
+    }
+    
 }
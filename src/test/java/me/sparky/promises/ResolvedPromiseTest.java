@@ -20,9 +20,14 @@ import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ResolvedPromiseTest {
@@ -57,4 +62,47 @@ class ResolvedPromiseTest {
         
     }
     
+    @Test
+    void join_ReturnsResult() {
+        
+        assertEquals("Resolved value", promise.join());
+        assertEquals("Resolved value", promise.getNow("default"));
+        
+    }
+    
+    @Test
+    void resolve_SharesInstances_ForNullBooleansAndSmallIntegers() {
+        
+        assertSame(Promise.resolve(), Promise.resolve(null));
+        assertSame(Promise.resolve(true), Promise.resolve(true));
+        assertSame(Promise.resolve(false), Promise.resolve(false));
+        assertSame(Promise.resolve(42), Promise.resolve(42));
+        assertNotSame(Promise.resolve(1000), Promise.resolve(1000));
+        
+    }
+    
+    @Test
+    void transform_ReturnsSettledPromise_WithoutWaiting() {
+        
+        val transformed = promise.transform(String::length);
+        
+        assertInstanceOf(ResolvedPromise.class, transformed);
+        assertEquals(14, transformed.getNow(null));
+        assertInstanceOf(RejectedPromise.class, promise.transform((value) -> { throw new IllegalStateException(); }));
+        assertSame(promise, Promise.resolve(1).flatMap((value) -> promise));
+        
+    }
+    
+    @Test
+    void then_HandsExceptionsToRuntime() {
+        
+        val handled = Collections.synchronizedList(new ArrayList<Throwable>());
+        val reason = new IllegalStateException();
+        
+        PromiseRuntime.defaults().withExceptionHandler(handled::add).run(() -> promise.then(() -> { throw reason; }));
+        
+        assertEquals(Collections.singletonList(reason), handled);
+        
+    }
+    
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPromiseTest {
+    
+    RetryPolicy policy = RetryPolicy.maxAttempts(3)
+            .withBackoff(Duration.ofMillis(5), Duration.ofMillis(20), 2.0);
+    
+    @Test
+    void retry_Resolves_WhenAnAttemptSucceeds() {
+        
+        val attempts = new AtomicInteger(0);
+        val promise = Promise.retry(() -> attempts.incrementAndGet() < 3
+                ? Promise.<String>reject("failed")
+                : Promise.resolve("resolved"), policy);
+        
+        assertEquals("resolved", promise.join());
+        assertEquals(3, attempts.get());
+        
+    }
+    
+    @Test
+    void retry_IsRejectedWithLastReason_WhenAllAttemptsFail() {
+        
+        val attempts = new AtomicInteger(0);
+        val reason = new IllegalStateException();
+        val promise = Promise.<String>retry(() -> {
+            attempts.incrementAndGet();
+            return Promise.reject(reason);
+        }, policy);
+        
+        val exception = assertThrows(PromiseRejectionException.class, promise::join);
+        assertSame(reason, exception.getCause());
+        assertEquals(3, attempts.get());
+        
+    }
+    
+    @Test
+    void retry_DoesNotRetry_WhenExceptionIsNotRetryable() {
+        
+        val attempts = new AtomicInteger(0);
+        val promise = Promise.<String>retry(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException();
+        }, policy.withRetryable((reason) -> !(reason instanceof IllegalArgumentException)));
+        
+        assertEquals(Promise.State.REJECTED, promise.getState());
+        assertEquals(1, attempts.get());
+        
+    }
+    
+    @Test
+    void retry_IsRejected_WhenRetryablePredicateThrows() {
+        
+        val reason = new IllegalStateException();
+        val pending = new SettleablePromise<String>();
+        val promise = Promise.<String>retry(() -> pending, policy.withRetryable((r) -> { throw reason; }));
+        
+        pending.reject("failed");
+        
+        val exception = assertThrows(PromiseRejectionException.class, () -> promise.getNow(null));
+        assertSame(reason, exception.getCause());
+        
+    }
+    
+    @Test
+    void retry_IsRejected_WhenRetryMetricsHookThrows() {
+        
+        val reason = new IllegalStateException();
+        val runtime = PromiseRuntime.defaults().withMetrics(new PromiseMetrics() {
+            
+            @Override
+            public void onRetry(int attempt, Throwable r) { throw reason; }
+            
+        });
+        val promise = new RetryPromise<String>(() -> Promise.reject("failed"), policy, Runnable::run, runtime);
+        
+        val exception = assertThrows(PromiseRejectionException.class, () -> promise.getNow(null));
+        assertSame(reason, exception.getCause());
+        
+    }
+    
+    @Test
+    void cancel_StopsRetries() {
+        
+        val attempts = new AtomicInteger(0);
+        val promise = Promise.<String>retry(() -> {
+            attempts.incrementAndGet();
+            return Promise.reject("failed");
+        }, RetryPolicy.maxAttempts(3).withBackoff(Duration.ofMillis(50), Duration.ofMillis(50), 1.0));
+        
+        assertTrue(promise.cancel());
+        
+        Promise.delay(Duration.ofMillis(150), null).join();
+        
+        assertEquals(1, attempts.get());
+        
+    }
+    
+    @Test
+    void backoffNanos_GrowsExponentiallyUpToMax() {
+        
+        val policy = RetryPolicy.maxAttempts(5)
+                .withBackoff(Duration.ofMillis(10), Duration.ofMillis(30), 2.0)
+                .withJitter(0.0);
+        
+        assertEquals(Duration.ofMillis(10).toNanos(), policy.backoffNanos(1));
+        assertEquals(Duration.ofMillis(20).toNanos(), policy.backoffNanos(2));
+        assertEquals(Duration.ofMillis(30).toNanos(), policy.backoffNanos(3));
+        
+    }
+    
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduledPromiseTest {
+    
+    @Test
+    void delay_Resolves_AfterDelay() {
+        
+        val start = System.nanoTime();
+        val promise = Promise.delay(Duration.ofMillis(30), "delayed");
+        
+        assertEquals(Promise.State.PENDING, promise.getState());
+        assertEquals("delayed", promise.join());
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(30).toNanos());
+        
+    }
+    
+    @Test
+    void delay_RunsCallbacksOnExecutor_WhenDelayElapses() {
+        
+        val timer = new ManualTimer();
+        val tasks = new ArrayList<Runnable>();
+        val runtime = PromiseRuntime.defaults().withTimer(timer).withExecutor(tasks::add);
+        
+        val result = new AtomicReference<String>();
+        val promise = new ScheduledPromise<>(Duration.ofMillis(10), () -> "delayed", null, runtime);
+        promise.then(result::set);
+        
+        timer.advance(Duration.ofMillis(10));
+        
+        assertEquals(Promise.State.RESOLVED, promise.getState());
+        assertNull(result.get());
+        assertEquals(1, tasks.size());
+        
+        tasks.get(0).run();
+        
+        assertEquals("delayed", result.get());
+        
+    }
+    
+    @Test
+    void schedule_IsRejected_WhenTaskThrows() {
+        
+        val reason = new IllegalStateException();
+        val promise = Promise.schedule(Duration.ofMillis(10), () -> { throw reason; });
+        
+        val exception = assertThrows(PromiseRejectionException.class, promise::join);
+        assertSame(reason, exception.getCause());
+        
+    }
+    
+    @Test
+    void cancel_StopsTaskFromRunning() {
+        
+        val runCount = new AtomicInteger(0);
+        val promise = Promise.schedule(Duration.ofMillis(20), runCount::incrementAndGet);
+        
+        assertTrue(promise.cancel());
+        
+        Promise.delay(Duration.ofMillis(50), null).join();
+        
+        assertEquals(0, runCount.get());
+        assertEquals(Promise.State.CANCELLED, promise.getState());
+        
+    }
+    
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 Sparky
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.sparky.promises;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeoutPromiseTest {
+    
+    @Test
+    void timeoutPromise_IsRejected_WhenTimeoutElapses() {
+        
+        val source = new SettleablePromise<String>();
+        val timeoutPromise = source.timeout(Duration.ofMillis(20));
+        
+        assertTrue(timeoutPromise.await(Duration.ofSeconds(10)));
+        
+        val exception = assertThrows(PromiseRejectionException.class, timeoutPromise::join);
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertTrue(source.await(Duration.ofSeconds(10)));
+        assertEquals(Promise.State.CANCELLED, source.getState());
+        
+    }
+    
+    @Test
+    void timeoutPromise_RunsCallbacksOnExecutor_WhenTimeoutElapses() {
+        
+        val timer = new ManualTimer();
+        val tasks = new ArrayList<Runnable>();
+        val runtime = PromiseRuntime.defaults().withTimer(timer).withExecutor(tasks::add);
+        
+        val reason = new AtomicReference<Throwable>();
+        val source = new SettleablePromise<String>();
+        val timeoutPromise = new TimeoutPromise<>(source, Duration.ofMillis(20), runtime);
+        timeoutPromise.catchException(reason::set);
+        
+        timer.advance(Duration.ofMillis(20));
+        
+        assertEquals(Promise.State.REJECTED, timeoutPromise.getState());
+        assertNull(reason.get());
+        assertEquals(Promise.State.PENDING, source.getState());
+        assertEquals(1, tasks.size());
+        
+        tasks.get(0).run();
+        
+        assertInstanceOf(TimeoutException.class, reason.get());
+        assertEquals(Promise.State.CANCELLED, source.getState());
+        
+    }
+    
+    @Test
+    void timeoutPromise_Resolves_WhenSourceResolvesFirst() {
+        
+        val source = new SettleablePromise<String>();
+        val timeoutPromise = source.timeout(Duration.ofSeconds(10));
+        
+        source.resolve("resolved");
+        
+        assertEquals("resolved", timeoutPromise.getNow(null));
+        
+    }
+    
+    @Test
+    void timeoutPromise_DoesNotCancelSource_WhenSomethingElseIsSubscribed() {
+        
+        val source = new SettleablePromise<String>();
+        val timeoutPromise = source.timeout(Duration.ofMillis(20));
+        
+        source.then(() -> { });
+        timeoutPromise.await();
+        
+        assertEquals(Promise.State.PENDING, source.getState());
+        
+    }
+    
+}
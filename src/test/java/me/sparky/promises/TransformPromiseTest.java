@@ -20,7 +20,12 @@ import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class TransformPromiseTest {
@@ -75,4 +80,136 @@ public class TransformPromiseTest {
         
     }
     
+    @Test
+    void transformAsync_AppliesTransformOnExecutor() {
+        
+        val executor = Executors.newSingleThreadExecutor();
+        
+        try {
+            val caller = Thread.currentThread();
+            val transformPromise = Promise.resolve(4).transformAsync((value) -> {
+                assertNotEquals(caller, Thread.currentThread());
+                return value + 4;
+            }, executor);
+            
+            assertEquals(8, transformPromise.join());
+        } finally {
+            executor.shutdown();
+        }
+        
+    }
+    
+    @Test
+    void consecutiveTransforms_ApplyEachFunctionOnce() {
+        
+        val head = new SettleablePromise<Integer>();
+        val applied = new AtomicInteger();
+        
+        val first = head.transform((value) -> applied.incrementAndGet() + value);
+        val second = first.transform((value) -> applied.incrementAndGet() + value);
+        val third = second.transform((value) -> applied.incrementAndGet() + value);
+        
+        head.resolve(0);
+        
+        assertEquals(3, applied.get());
+        assertEquals(1, first.getNow(null));
+        assertEquals(3, second.getNow(null));
+        assertEquals(6, third.getNow(null));
+        
+    }
+    
+    @Test
+    void consecutiveTransforms_Reject_WhenEarlierTransformFails() {
+        
+        val head = new SettleablePromise<Integer>();
+        
+        val last = head
+                .transform((value) -> {
+                    if (value == 0) throw new RuntimeException("fail");
+                    return value;
+                })
+                .transform((value) -> value + 1);
+        
+        head.resolve(0);
+        
+        last.catchException((reason) -> assertEquals("fail", reason.getMessage()));
+        assertEquals(Promise.State.REJECTED, last.getState());
+        
+    }
+    
+    @Test
+    void longChain_ResolvesWithoutOverflowingStack() {
+        
+        val head = new SettleablePromise<Integer>();
+        
+        Promise<Integer> tail = head;
+        for (int i = 0; i < 100_000; i++)
+            tail = tail.transform((value) -> value + 1);
+        
+        head.resolve(0);
+        
+        assertEquals(100_000, tail.getNow(null));
+        
+    }
+    
+    @Test
+    void cancel_CancelsSource_WhenNothingElseIsSubscribed() {
+        
+        val source = new SettleablePromise<Integer>();
+        val transformPromise = source.transform((value) -> value + 1);
+        
+        assertTrue(transformPromise.cancel());
+        
+        assertEquals(Promise.State.CANCELLED, transformPromise.getState());
+        assertEquals(Promise.State.CANCELLED, source.getState());
+        
+    }
+    
+    @Test
+    void cancel_DoesNotCancelSource_WhenSomethingElseIsSubscribed() {
+        
+        val source = new SettleablePromise<Integer>();
+        val transformPromise = source.transform((value) -> value + 1);
+        val otherPromise = source.transform((value) -> value + 2);
+        
+        transformPromise.cancel();
+        source.resolve(1);
+        
+        assertEquals(Promise.State.CANCELLED, transformPromise.getState());
+        assertEquals(3, otherPromise.getNow(null));
+        
+    }
+    
+    @Test
+    void cancel_PropagatesThroughChain() {
+        
+        val source = new SettleablePromise<Integer>();
+        val transformPromise = source
+                .transform((value) -> value + 1)
+                .transform((value) -> value + 1);
+        
+        transformPromise.cancel();
+        
+        assertEquals(Promise.State.CANCELLED, source.getState());
+        
+    }
+    
+    @Test
+    void join_RunsQueuedChains_WhenCalledFromCallback() {
+        
+        val outer = new SettleablePromise<Integer>();
+        val inner = new SettleablePromise<Integer>();
+        val transformed = inner.transform((r) -> r + 1);
+        val result = new int[1];
+        
+        outer.then((value) -> {
+            inner.resolve(value);
+            result[0] = transformed.join();
+        });
+        outer.resolve(1);
+        
+        assertEquals(2, result[0]);
+        
+    }
+    
 }
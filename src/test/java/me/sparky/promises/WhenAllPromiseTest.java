@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -76,4 +77,13 @@ class WhenAllPromiseTest {
         
     }
     
+    @Test
+    void resolves_WhenThereAreNoInputs() {
+        
+        val whenAllPromise = Promise.whenAll(Collections.emptyList());
+        
+        assertEquals(Promise.State.RESOLVED, whenAllPromise.getState());
+        
+    }
+    
 }